@@ -0,0 +1,88 @@
+package backend.logic;
+
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+import interfaces.GameStatus;
+import interfaces.IllegalMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the queries of Game on a position in the move phase and whole games played with random legal moves
+ * through the same methods the server calls for every move of a player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameBenchmark {
+    // games in the move phase may go on forever, so they are cut off
+    private static final int MAX_PLIES = 300;
+
+    private Game game;
+    private SplittableRandom random;
+    private int[] moves;
+    private int field;
+    private boolean colour;
+
+    @Setup
+    public void setup() {
+        // white a7, d7, b6, d6 and f4 against black g7, f6, a4, b4 and d2
+        int white = 1 | 1 << 1 | 1 << 3 | 1 << 4 | 1 << 14;
+        int black = 1 << 2 | 1 << 5 | 1 << 9 | 1 << 10 | 1 << 19;
+        game = Game.inMovePhase(white, black, GameInterface.COLOUR_WHITE);
+        random = new SplittableRandom(16);
+        moves = new int[Game.MAX_MOVES];
+    }
+
+    @Benchmark
+    public boolean isInMill() {
+        field = field == Topology.FIELD_COUNT - 1 ? 0 : field + 1;
+        return game.isInMill(Topology.getPosX(field), Topology.getPosY(field));
+    }
+
+    @Benchmark
+    public boolean doesColorHavePossibleMoves() {
+        colour = !colour;
+        return game.doesColorHavePossibleMoves(colour);
+    }
+
+    @Benchmark
+    public GameStatus getStatus() {
+        return game.getStatus();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Game randomGame() throws IllegalMoveException {
+        Game randomGame = new Game(false, 0);
+        for (int ply = 0; ply < MAX_PLIES && randomGame.getStatus().currentPhase != GamePhase.GAME_OVER; ply++) {
+            int count = randomGame.generateMoves(moves);
+            if (count == 0) break;
+            play(randomGame, moves[random.nextInt(count)]);
+        }
+        return randomGame;
+    }
+
+    private static void play(Game game, int move) throws IllegalMoveException {
+        boolean colour = game.getCurrentPlayer();
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+
+        if (from == Move.NONE) {
+            game.placeStoneCheckTurn(colour, Topology.getPosX(to), Topology.getPosY(to), new Stone(colour));
+        } else {
+            game.moveStoneCheckTurn(colour, Topology.getPosX(from), Topology.getPosY(from), Topology.getPosX(to), Topology.getPosY(to));
+        }
+
+        int removed = Move.getRemoved(move);
+        if (removed != Move.NONE) game.removeStoneCheckTurn(colour, Topology.getPosX(removed), Topology.getPosY(removed));
+    }
+}
@@ -0,0 +1,54 @@
+package backend.logic;
+
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups of adjacent fields, which every move of a stone goes through.
+ * Every invocation takes the next field, so the results cannot be computed in advance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GridBenchmark {
+    private Grid grid;
+    private int field;
+
+    @Setup
+    public void setup() throws IllegalMoveException {
+        grid = new Grid();
+        grid.placeStone(0, 0, new Stone(GameInterface.COLOUR_WHITE));
+        grid.placeStone(3, 0, new Stone(GameInterface.COLOUR_WHITE));
+        grid.placeStone(1, 1, new Stone(GameInterface.COLOUR_BLACK));
+        grid.placeStone(3, 5, new Stone(GameInterface.COLOUR_BLACK));
+    }
+
+    private int nextField() {
+        field = field == Topology.FIELD_COUNT - 1 ? 0 : field + 1;
+        return field;
+    }
+
+    @Benchmark
+    public HashSet<Field> getAdjacentFields() throws IllegalMoveException {
+        int index = nextField();
+        return grid.getAdjacentFields(Topology.getPosX(index), Topology.getPosY(index));
+    }
+
+    @Benchmark
+    public boolean areFieldsAdjacent() throws IllegalMoveException {
+        int index = nextField();
+        // the next field is adjacent for some fields and not for others
+        int other = index == Topology.FIELD_COUNT - 1 ? 0 : index + 1;
+        return grid.areFieldsAdjacent(Topology.getPosX(index), Topology.getPosY(index), Topology.getPosX(other), Topology.getPosY(other));
+    }
+}
@@ -1,6 +1,18 @@
 package backend;
 
+import backend.engine.AnalysisService;
+import backend.engine.BookPolicy;
+import backend.engine.DefaultEvaluation;
+import backend.engine.Engine;
+import backend.engine.EnginePolicy;
+import backend.engine.EngineScheduler;
+import backend.engine.EvaluationCache;
+import backend.engine.HintProvider;
+import backend.engine.OpeningBook;
+import backend.engine.Policy;
+import backend.engine.TranspositionTable;
 import backend.helpers.Match;
+import backend.handlers.BotWorker;
 import backend.handlers.ServerWorker;
 import interfaces.*;
 import com.mongodb.client.MongoClient;
@@ -13,9 +25,14 @@ import org.bson.Document;
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -23,6 +40,14 @@ import static com.mongodb.client.model.Filters.*;
 
 public class Server extends Thread {
     public static final String authenticationDatabaseUserCollectionName = "User";
+
+    // a player waiting longer in the quick match queue plays against a bot
+    public static final long DEFAULT_BOT_WAIT_MILLIS = 30_000;
+    private static final long BOT_MOVE_MILLIS = 1_000;
+    private static final int BOT_DEPTH = 8;
+    private static final int BOT_TABLE_MEGABYTES = 4;
+    // a book move has to be played in this many games to be chosen by a bot
+    private static final int BOT_BOOK_MIN_GAMES = 2;
     private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     private final int port;
@@ -44,10 +69,43 @@ public class Server extends Thread {
 
     private final MongoClient mongoClient;
 
+    private final long botWaitMillis;
+    private final OpeningBook openingBook;
+    private final ScheduledExecutorService quickMatchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "quick-match-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // the pending bot match of every player in the quick match queue, guarded by this
+    private final Map<ServerWorker, ScheduledFuture<?>> botTimers = new HashMap<>();
+    // engine work runs on few threads of low priority, so it cannot take the CPU from the workers of the clients
+    private final EngineScheduler engineScheduler = new EngineScheduler();
+    private final HintProvider hintProvider = new HintProvider(engineScheduler);
+    private final AnalysisService analysisService = new AnalysisService(engineScheduler);
+
     public Server(int port, String mongoConnectionString, String authenticationDatabaseName) {
+        this(port, mongoConnectionString, authenticationDatabaseName, DEFAULT_BOT_WAIT_MILLIS);
+    }
+
+    /**
+     * @param botWaitMillis The time a player waits in the quick match queue before playing against a bot,
+     *                      0 or less to never match players with bots
+     */
+    public Server(int port, String mongoConnectionString, String authenticationDatabaseName, long botWaitMillis) {
+        this(port, mongoConnectionString, authenticationDatabaseName, botWaitMillis, null);
+    }
+
+    /**
+     * @param botWaitMillis The time a player waits in the quick match queue before playing against a bot,
+     *                      0 or less to never match players with bots
+     * @param openingBook The openings the bots play before they search, may be null
+     */
+    public Server(int port, String mongoConnectionString, String authenticationDatabaseName, long botWaitMillis, OpeningBook openingBook) {
         this.port = port;
         this.authenticationDatabaseName = authenticationDatabaseName;
         this.mongoClient = MongoClients.create(mongoConnectionString);
+        this.botWaitMillis = botWaitMillis;
+        this.openingBook = openingBook;
     }
 
     @Override
@@ -76,6 +134,18 @@ public class Server extends Thread {
         }
     }
 
+    public EngineScheduler getEngineScheduler() {
+        return engineScheduler;
+    }
+
+    public HintProvider getHintProvider() {
+        return hintProvider;
+    }
+
+    public AnalysisService getAnalysisService() {
+        return analysisService;
+    }
+
     private synchronized MongoCollection<Document> getUserCollection() {
         return mongoClient
                 .getDatabase(authenticationDatabaseName)
@@ -196,7 +266,7 @@ public class Server extends Thread {
     }
 
     public synchronized void createMatch(ServerWorker client1, ServerWorker client2) throws IllegalMoveException {
-        new Match(client1, client2);
+        new Match(client1, client2, analysisService);
 
         System.out.println("[Matchmaking] New match created " + client1 + " & "+ client2);
     }
@@ -280,14 +350,54 @@ public class Server extends Thread {
                 } catch (IllegalMoveException e) {
                     e.printStackTrace();
                 }
+            } else if (botWaitMillis > 0) {
+                botTimers.put(
+                        serverWorker,
+                        quickMatchTimer.schedule(() -> matchWithBot(serverWorker), botWaitMillis, TimeUnit.MILLISECONDS)
+                );
             }
         }
     }
 
+    /**
+     * Lets the given player play against a bot, should they still be waiting in the quick match queue.
+     */
+    private synchronized void matchWithBot(ServerWorker serverWorker) {
+        if (!quickMatchQueue.contains(serverWorker) || serverWorker.isInMatch()) return;
+        removeFromQuickMatchQueue(serverWorker);
+
+        Engine engine = new Engine(
+                new DefaultEvaluation(),
+                new TranspositionTable(BOT_TABLE_MEGABYTES),
+                null,
+                EvaluationCache.getShared()
+        );
+        Policy policy = new EnginePolicy(engine, BOT_DEPTH);
+        if (openingBook != null) policy = new BookPolicy(openingBook, BOT_BOOK_MIN_GAMES, policy);
+        BotWorker bot = new BotWorker(
+                this,
+                policy,
+                engineScheduler,
+                BOT_MOVE_MILLIS,
+                System.nanoTime()
+        );
+
+        try {
+            // the player gets the start event first, so it arrives before the first move of the bot
+            createMatch(serverWorker, bot);
+            playerPool.remove(serverWorker);
+            broadcastPlayerPool();
+        } catch (IllegalMoveException e) {
+            e.printStackTrace();
+        }
+    }
+
     private synchronized ServerWorker popQuickMatchQueue() {
         if (!quickMatchQueue.isEmpty()) {
             quickMatchQueueSize.decrementAndGet();
-            return quickMatchQueue.poll();
+            ServerWorker serverWorker = quickMatchQueue.poll();
+            cancelBotTimer(serverWorker);
+            return serverWorker;
         } else {
             return null;
         }
@@ -298,6 +408,15 @@ public class Server extends Thread {
             quickMatchQueue.remove(serverWorker);
             quickMatchQueueSize.decrementAndGet();
         }
+        cancelBotTimer(serverWorker);
+    }
+
+    /**
+     * Cancels the bot match of a player leaving the quick match queue, so it cannot start after the player re-joined.
+     */
+    private synchronized void cancelBotTimer(ServerWorker serverWorker) {
+        ScheduledFuture<?> timer = botTimers.remove(serverWorker);
+        if (timer != null) timer.cancel(false);
     }
 
     private synchronized void addServerWorker(ServerWorker serverWorker) {
@@ -363,8 +482,12 @@ public class Server extends Thread {
         System.out.println(playerPool);
     }
 
-    public static void main(String[] args) {
-        Server server = new Server(2302, "mongodb://mandant3-dev.via.local:27017", "mill_game");
+    /**
+     * Usage: Server [opening book]
+     */
+    public static void main(String[] args) throws IOException {
+        OpeningBook openingBook = args.length > 0 ? OpeningBook.open(Path.of(args[0])) : null;
+        Server server = new Server(2302, "mongodb://mandant3-dev.via.local:27017", "mill_game", DEFAULT_BOT_WAIT_MILLIS, openingBook);
         server.start();
     }
 }
@@ -0,0 +1,154 @@
+package backend.engine;
+
+import interfaces.GameAnalysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analyzes finished games in the background (see GameAnalyzer) and keeps the latest analyses, so players can
+ * fetch them after their games. Games wait in a bounded queue and are analyzed in batches, one batch at a time,
+ * as BACKGROUND tasks of an EngineScheduler, so a spike of finished games takes at most one thread, and only
+ * while no live match needs it. Games, which do not fit in the queue, are not analyzed.
+ */
+public class AnalysisService {
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_RESULTS = 4096;
+    public static final int BATCH_SIZE = 8;
+    public static final long DEFAULT_POSITION_MILLIS = 20;
+
+    // background work is only late if the queue does not move at all
+    private static final long DEADLINE_MILLIS = 60_000;
+
+    private record Request(long id, boolean startingPlayer, int[] plies) {}
+
+    private final EngineScheduler scheduler;
+    private final GameAnalyzer analyzer;
+    private final long positionMillis;
+    private final BlockingQueue<Request> queue;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Map<Long, GameAnalysis> results;
+
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AnalysisService(EngineScheduler scheduler) {
+        this(scheduler, new GameAnalyzer(), DEFAULT_POSITION_MILLIS, DEFAULT_CAPACITY, DEFAULT_RESULTS);
+    }
+
+    /**
+     * @param positionMillis The time every position may be searched for
+     * @param capacity The number of games, which may wait for their analysis
+     * @param maxResults The number of analyses kept, the oldest are forgotten first
+     */
+    public AnalysisService(EngineScheduler scheduler, GameAnalyzer analyzer, long positionMillis, int capacity, int maxResults) {
+        if (positionMillis < 1) throw new IllegalArgumentException("The time per position has to be at least 1 ms");
+
+        this.scheduler = scheduler;
+        this.analyzer = analyzer;
+        this.positionMillis = positionMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.results = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, GameAnalysis> eldest) {
+                return size() > maxResults;
+            }
+        });
+    }
+
+    /**
+     * Queues a finished game for its analysis. Does not block.
+     * @param id The id, the analysis can be fetched by
+     * @param plies The moves of the game (see GameAnalyzer)
+     * @return false, should the queue be full, so the game is not analyzed
+     */
+    public boolean submit(long id, boolean startingPlayer, int[] plies) {
+        if (!queue.offer(new Request(id, startingPlayer, plies))) {
+            dropped.increment();
+            return false;
+        }
+        startBatch();
+        return true;
+    }
+
+    /**
+     * Submits the next batch to the scheduler, unless one is running.
+     */
+    private void startBatch() {
+        while (!queue.isEmpty() && running.compareAndSet(false, true)) {
+            List<Request> batch = new ArrayList<>(BATCH_SIZE);
+            queue.drainTo(batch, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                running.set(false);
+                continue;
+            }
+
+            int positions = 0;
+            for (Request request : batch) {
+                positions += request.plies().length + 1;
+            }
+            int batchPositions = positions;
+
+            try {
+                scheduler.submit(EngineScheduler.Priority.BACKGROUND, batchPositions * positionMillis, DEADLINE_MILLIS, slice -> {
+                    analyze(batch, Math.max(1, slice / batchPositions));
+                    return null;
+                }).whenComplete((result, error) -> {
+                    running.set(false);
+                    startBatch();
+                });
+            } catch (RejectedExecutionException e) {
+                // the scheduler is busy: the games wait for the next submit
+                for (Request request : batch) {
+                    if (!queue.offer(request)) dropped.increment();
+                }
+                running.set(false);
+            }
+            return;
+        }
+    }
+
+    private void analyze(List<Request> batch, long millis) {
+        for (Request request : batch) {
+            try {
+                results.put(request.id(), analyzer.analyze(request.startingPlayer(), request.plies(), millis));
+                analyzed.increment();
+            } catch (IllegalArgumentException e) {
+                System.err.println("[Analysis] Game " + request.id() + " cannot be replayed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the analysis of the given game, null if it has not been analyzed (yet)
+     */
+    public GameAnalysis getResult(long id) {
+        return results.get(id);
+    }
+
+    /**
+     * @return the number of games waiting for their analysis, without the running batch
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getAnalyzed() {
+        return analyzed.sum();
+    }
+
+    /**
+     * @return the number of games not analyzed, because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
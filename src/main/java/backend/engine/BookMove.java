@@ -0,0 +1,56 @@
+package backend.engine;
+
+import backend.logic.Move;
+
+/**
+ * A move of the opening book with the results of the archived games, in which it has been played.
+ * The results are given from the view of the player, who made the move.
+ */
+public class BookMove {
+    private final int move;
+    private final int games;
+    private final int wins;
+    private final int draws;
+
+    public BookMove(int move, int games, int wins, int draws) {
+        this.move = move;
+        this.games = games;
+        this.wins = wins;
+        this.draws = draws;
+    }
+
+    /**
+     * @return the move (see Move for the encoding), transformed for the position it has been looked up for
+     */
+    public int getMove() {
+        return move;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return games - wins - draws;
+    }
+
+    /**
+     * @return the points per game (1 for a win, 1/2 for a draw) of the player, who made the move
+     */
+    public double getScore() {
+        return games == 0 ? 0 : (wins + draws / 2.0) / games;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(move) + " games " + games + " +" + wins + " =" + draws + " -" + getLosses();
+    }
+}
@@ -0,0 +1,37 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays the moves of an opening book while the position is in the book, then lets another policy choose.
+ */
+public class BookPolicy implements Policy {
+    private final OpeningBook book;
+    private final int minGames;
+    private final Policy fallback;
+
+    /**
+     * @param minGames The number of games a book move has to be played in to be chosen
+     * @param fallback Chooses the moves of positions, which are not in the book
+     */
+    public BookPolicy(OpeningBook book, int minGames, Policy fallback) {
+        this.book = book;
+        this.minGames = minGames;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        int move = book.chooseMove(game, minGames, random);
+        return move != Move.NONE ? move : fallback.chooseMove(game, random);
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random, long millis) {
+        int move = book.chooseMove(game, minGames, random);
+        return move != Move.NONE ? move : fallback.chooseMove(game, random, millis);
+    }
+}
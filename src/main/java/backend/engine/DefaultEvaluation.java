@@ -0,0 +1,55 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Topology;
+
+/**
+ * Weighs the stones left, the movable stones, the blocked stones of the other player
+ * and the mills, which only miss a single stone.
+ */
+public class DefaultEvaluation implements Evaluation {
+    private final int stoneWeight;
+    private final int mobilityWeight;
+    private final int blockedWeight;
+    private final int potentialMillWeight;
+
+    public DefaultEvaluation() {
+        this(100, 10, 15, 30);
+    }
+
+    public DefaultEvaluation(int stoneWeight, int mobilityWeight, int blockedWeight, int potentialMillWeight) {
+        this.stoneWeight = stoneWeight;
+        this.mobilityWeight = mobilityWeight;
+        this.blockedWeight = blockedWeight;
+        this.potentialMillWeight = potentialMillWeight;
+    }
+
+    @Override
+    public int evaluate(Game game, boolean colour) {
+        return evaluatePlayer(game, colour) - evaluatePlayer(game, !colour);
+    }
+
+    private int evaluatePlayer(Game game, boolean colour) {
+        int stones = game.getStones(colour);
+        int empty = Topology.ALL_FIELDS & ~(stones | game.getStones(!colour));
+
+        int score = stoneWeight * (Integer.bitCount(stones) + game.getStonesInInventory(colour));
+
+        // stones which jump are never blocked
+        if (!game.isInJumpPhase(colour)) {
+            score += mobilityWeight * game.getMovableStoneCount(colour);
+        }
+        if (!game.isInJumpPhase(!colour)) {
+            int otherStones = Integer.bitCount(game.getStones(!colour));
+            score += blockedWeight * (otherStones - game.getMovableStoneCount(!colour));
+        }
+
+        for (int m = 0; m < Topology.MILL_COUNT; m++) {
+            int mill = Topology.getMill(m);
+            if (Integer.bitCount(stones & mill) == 2 && (empty & mill) != 0) {
+                score += potentialMillWeight;
+            }
+        }
+        return score;
+    }
+}
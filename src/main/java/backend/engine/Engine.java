@@ -0,0 +1,323 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GamePhase;
+
+/**
+ * Negamax search with alpha-beta pruning and iterative deepening. The search runs on a copy of the game,
+ * which is changed with makeMove/unmakeMove, and writes moves into buffers allocated once per engine,
+ * so searching does not allocate. Results are kept in a transposition table, which may be shared with other engines.
+ * An engine may only be used by one thread at a time.
+ */
+public class Engine {
+    /**
+     * Score of a won game, reduced by the number of moves needed to win it
+     */
+    public static final int WIN = 1_000_000;
+    public static final int MAX_PLY = 64;
+
+    /**
+     * Scores beyond WIN - MAX_DISTANCE are won or lost games. Tablebase distances may exceed MAX_PLY.
+     */
+    public static final int MAX_DISTANCE = 1024;
+
+    private static final int INFINITY = WIN + 1;
+
+    // the clock is only read every CHECK_INTERVAL + 1 nodes
+    private static final int CHECK_INTERVAL = 1023;
+
+    // exact results of searches up to this depth are shared through the evaluation cache
+    private static final int MAX_CACHED_DEPTH = 2;
+
+    private final Evaluation evaluation;
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private final EvaluationCache cache;
+    private final int[][] moves = new int[MAX_PLY][Game.MAX_MOVES];
+
+    private long nodes;
+    private long deadline;
+    // number of repetitions and games without mills scored so far, which depend on the moves leading to a position
+    private long draws;
+    private boolean aborted;
+
+    // set by another thread to stop the search early (see ParallelEngine)
+    private volatile boolean stopped;
+
+    public Engine() {
+        this(new DefaultEvaluation());
+    }
+
+    public Engine(Evaluation evaluation) {
+        this(evaluation, new TranspositionTable());
+    }
+
+    public Engine(Evaluation evaluation, TranspositionTable table) {
+        this(evaluation, table, null);
+    }
+
+    /**
+     * @param tablebase Endgames to look up instead of searching them, may be null
+     */
+    public Engine(Evaluation evaluation, TranspositionTable table, Tablebase tablebase) {
+        this(evaluation, table, tablebase, null);
+    }
+
+    /**
+     * @param tablebase Endgames to look up instead of searching them, may be null
+     * @param cache Evaluations and shallow results shared with other engines (see EvaluationCache), may be null
+     */
+    public Engine(Evaluation evaluation, TranspositionTable table, Tablebase tablebase, EvaluationCache cache) {
+        this.evaluation = evaluation;
+        this.table = table;
+        this.tablebase = tablebase;
+        this.cache = cache;
+    }
+
+    /**
+     * Searches the best move of the acting player, deepening until the time is up or the given depth is reached.
+     * The given game is not changed.
+     * @param millis The wall-clock time, after which the search is stopped
+     * @param maxDepth The maximum depth, at most MAX_PLY - 1
+     * @return the best move of the last completed iteration. Should not even the first iteration complete
+     * in time, the first legal move is returned
+     */
+    public SearchResult search(Game game, long millis, int maxDepth) {
+        stopped = false;
+        table.newSearch();
+        return search(game, System.nanoTime() + millis * 1_000_000L, maxDepth, 0);
+    }
+
+    /**
+     * Stops the running search as soon as possible. It still returns the result of the last completed iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Clears a stop requested for an earlier search. Has to be called before the search is started
+     * on another thread, so a stop requested in the meantime is not lost.
+     */
+    void resetStop() {
+        stopped = false;
+    }
+
+    /**
+     * @param helper 0 for the main search, otherwise the number of a helper of a parallel search,
+     * which searches the root moves in another order and skips some depths, so the helpers fill the table
+     * with different parts of the tree
+     */
+    SearchResult search(Game game, long deadline, int maxDepth, int helper) {
+        Game position = game.copy();
+        long start = System.nanoTime();
+        this.deadline = deadline;
+        nodes = 0;
+        aborted = false;
+
+        int[] rootMoves = moves[0];
+        int count = position.generateMoves(rootMoves);
+        if (count == 0) return new SearchResult(Move.NONE, terminalScore(position, 0), 0, 0, System.nanoTime() - start);
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+
+        if (helper > 0 && count > 1) {
+            int shift = helper % count;
+            for (int i = 0; i < shift; i++) {
+                int move = rootMoves[0];
+                System.arraycopy(rootMoves, 1, rootMoves, 0, count - 1);
+                rootMoves[count - 1] = move;
+            }
+            bestMove = rootMoves[0];
+        }
+
+        for (int depth = 1 + helper % 2; depth <= maxDepth; depth++) {
+            // the best move of the last iteration is searched first
+            for (int i = 0; i < count; i++) {
+                if (rootMoves[i] == bestMove) {
+                    rootMoves[i] = rootMoves[0];
+                    rootMoves[0] = bestMove;
+                    break;
+                }
+            }
+
+            int iterationMove = Move.NONE;
+            int alpha = -INFINITY;
+            boolean colour = position.getActingPlayer();
+
+            for (int i = 0; i < count; i++) {
+                position.makeMove(rootMoves[i]);
+                int score = position.getActingPlayer() == colour
+                        ? search(position, depth - 1, 1, alpha, INFINITY)
+                        : -search(position, depth - 1, 1, -INFINITY, -alpha);
+                position.unmakeMove();
+
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationMove = rootMoves[i];
+                }
+            }
+
+            if (aborted) break;
+            bestMove = iterationMove;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(position.getPositionKey(), bestMove, toTable(bestScore, 0), depth, TranspositionTable.EXACT);
+
+            if (Math.abs(bestScore) >= WIN - MAX_DISTANCE) break;
+        }
+
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    private int search(Game game, int depth, int ply, int alpha, int beta) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopped || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+
+        if (tablebase != null) {
+            int value = tablebase.probe(game);
+            if (value != Tablebase.UNKNOWN) return tablebaseScore(value, ply);
+        }
+
+        int[] moves = this.moves[ply];
+        int count = game.generateMoves(moves);
+        if (count == 0) {
+            if (game.isDraw()) draws++;
+            return terminalScore(game, ply);
+        }
+
+        boolean colour = game.getActingPlayer();
+        long key = game.getPositionKey();
+        if (depth == 0 || ply == MAX_PLY - 1) return evaluate(game, key, colour);
+
+        if (cache != null && depth <= MAX_CACHED_DEPTH) {
+            int score = cache.probe(key, depth);
+            if (score != EvaluationCache.MISS) return score;
+        }
+
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        orderMoves(moves, count, tableMove);
+
+        long drawsBefore = draws;
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            // the player acts again only if a mill has been closed without a stone to remove
+            int score = game.getActingPlayer() == colour
+                    ? search(game, depth - 1, ply + 1, alpha, beta)
+                    : -search(game, depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best > originalAlpha ? TranspositionTable.EXACT
+                : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        // won and lost games are scored relative to the root, and drawn games depend on the path to the position,
+        // so neither is shared with searches reaching the position on another path
+        if (cache != null && bound == TranspositionTable.EXACT && depth <= MAX_CACHED_DEPTH
+                && Math.abs(best) < WIN - MAX_DISTANCE && draws == drawsBefore) {
+            cache.store(key, best, depth);
+        }
+        return best;
+    }
+
+    /**
+     * Evaluates a leaf for the acting player, which is part of the key. A result of a shallow search
+     * found in the cache serves as well.
+     */
+    private int evaluate(Game game, long key, boolean colour) {
+        if (cache == null) return evaluation.evaluate(game, colour);
+
+        int score = cache.probe(key, 0);
+        if (score == EvaluationCache.MISS) {
+            score = evaluation.evaluate(game, colour);
+            cache.store(key, score, 0);
+        }
+        return score;
+    }
+
+    /**
+     * Scores of won or lost games count the moves from the root, so they are stored
+     * relative to the position and converted back when they are found at another ply.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_DISTANCE) return score + ply;
+        if (score <= -WIN + MAX_DISTANCE) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_DISTANCE) return score - ply;
+        if (score <= -WIN + MAX_DISTANCE) return score + ply;
+        return score;
+    }
+
+    private static int tablebaseScore(int value, int ply) {
+        if (Tablebase.isWin(value)) return WIN - ply - Tablebase.getDistance(value);
+        if (Tablebase.isLoss(value)) return -WIN + ply + Tablebase.getDistance(value);
+        return 0;
+    }
+
+    /**
+     * Scores a position without legal moves. A game is only over after a move of the other player,
+     * so the acting player has lost, unless the game is drawn. Otherwise the game cannot go on and is scored as a draw.
+     */
+    private static int terminalScore(Game game, int ply) {
+        return game.getPhase() == GamePhase.GAME_OVER && !game.isDraw() ? -WIN + ply : 0;
+    }
+
+    /**
+     * Moves the best move of an earlier search of this position to the front, followed by the moves
+     * which remove a stone, since they most likely cause a cutoff.
+     */
+    private static void orderMoves(int[] moves, int count, int tableMove) {
+        int front = 0;
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == tableMove) {
+                moves[i] = moves[0];
+                moves[0] = tableMove;
+                front = 1;
+                break;
+            }
+        }
+        for (int i = front; i < count; i++) {
+            if (Move.isRemoval(moves[i])) {
+                int move = moves[i];
+                moves[i] = moves[front];
+                moves[front++] = move;
+            }
+        }
+    }
+}
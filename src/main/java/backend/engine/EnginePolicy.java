@@ -0,0 +1,38 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves found by an Engine searching to a fixed depth, stopped early should a time be given.
+ * The search is deterministic, so the random numbers are not used.
+ */
+public class EnginePolicy implements Policy {
+    // the depth limits the search, not the clock
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE / 2_000_000L;
+
+    private final Engine engine;
+    private final int depth;
+
+    public EnginePolicy(int depth) {
+        this(new Engine(new DefaultEvaluation(), new TranspositionTable(1)), depth);
+    }
+
+    public EnginePolicy(Engine engine, int depth) {
+        if (depth < 1) throw new IllegalArgumentException("The depth has to be at least 1");
+
+        this.engine = engine;
+        this.depth = depth;
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        return engine.search(game, NO_TIME_LIMIT, depth).getMove();
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random, long millis) {
+        return engine.search(game, Math.min(millis, NO_TIME_LIMIT), depth).getMove();
+    }
+}
@@ -0,0 +1,253 @@
+package backend.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Runs the engine work of the server (bot moves, hints, analyses of games) on a fixed pool of threads of
+ * low priority, so any number of bot matches cannot take the CPU from the threads serving the clients.
+ * Tasks wait by priority class and, within a class, by deadline. Every task gets a time slice, which is
+ * shortened to its deadline, and has to return within it: searches use it as their time limit. A task,
+ * whose deadline passed while it was waiting, still runs with the minimal slice, so a bot moves late
+ * rather than never. The queue of every class is bounded and submitting to a full queue is rejected,
+ * so producers of background work have to hold back.
+ * The queue depth, the wait times and the missed deadlines of every class are counted to size the pool.
+ */
+public class EngineScheduler implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long MIN_SLICE_MILLIS = 1;
+
+    public enum Priority {
+        /**
+         * Answers a player is waiting for, e.g. hints
+         */
+        INTERACTIVE,
+        /**
+         * Moves of bots
+         */
+        BOT,
+        /**
+         * Work nobody is waiting for, e.g. analyses of finished games
+         */
+        BACKGROUND
+    }
+
+    private final PriorityBlockingQueue<Task<?>> queue = new PriorityBlockingQueue<>();
+    private final Thread[] workers;
+    private final int capacity;
+    private final Statistics[] statistics = new Statistics[Priority.values().length];
+
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final AtomicInteger active = new AtomicInteger(0);
+    private volatile boolean closed;
+
+    private static final class Statistics {
+        private final AtomicInteger queued = new AtomicInteger(0);
+        private final LongAdder started = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder missedDeadlines = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong(0);
+    }
+
+    private static final class Task<T> implements Comparable<Task<?>> {
+        private final Priority priority;
+        private final long sliceMillis;
+        private final long deadline;
+        private final long submitted;
+        private final long order;
+        private final LongFunction<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Priority priority, long sliceMillis, long deadline, long submitted, long order, LongFunction<T> work) {
+            this.priority = priority;
+            this.sliceMillis = sliceMillis;
+            this.deadline = deadline;
+            this.submitted = submitted;
+            this.order = order;
+            this.work = work;
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            if (priority != other.priority) return priority.compareTo(other.priority);
+            // nanoTime may overflow, so the difference is compared
+            if (deadline != other.deadline) return deadline - other.deadline < 0 ? -1 : 1;
+            return Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Uses half of the cores, so the threads of the clients always find one.
+     */
+    public EngineScheduler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param threads The number of threads doing engine work
+     * @param capacity The number of tasks, which may wait in every priority class
+     */
+    public EngineScheduler(int threads, int capacity) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        if (capacity < 1) throw new IllegalArgumentException("At least one task has to fit in the queue");
+
+        this.capacity = capacity;
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new Statistics();
+        }
+
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "engine-" + i);
+            workers[i].setDaemon(true);
+            workers[i].setPriority(Thread.MIN_PRIORITY);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Queues the given work.
+     * @param sliceMillis The time the work may take
+     * @param deadlineMillis The time from now, after which the result is late
+     * @param work Gets the time slice in milliseconds, shortened to the deadline, and has to return within it
+     * @return the result of the work, which may be cancelled while the work is waiting
+     * @throws RejectedExecutionException Should the queue of the priority class be full or the scheduler be closed
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, long sliceMillis, long deadlineMillis, LongFunction<T> work) {
+        if (closed) throw new RejectedExecutionException("The engine scheduler has been closed");
+
+        Statistics classStatistics = statistics[priority.ordinal()];
+        if (classStatistics.queued.incrementAndGet() > capacity) {
+            classStatistics.queued.decrementAndGet();
+            classStatistics.rejected.increment();
+            throw new RejectedExecutionException("The queue of " + priority + " tasks is full");
+        }
+
+        long now = System.nanoTime();
+        Task<T> task = new Task<>(priority, sliceMillis, now + deadlineMillis * 1_000_000L, now, sequence.getAndIncrement(), work);
+        queue.add(task);
+        return task.result;
+    }
+
+    private void work() {
+        while (!closed) {
+            try {
+                run(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private <T> void run(Task<T> task) {
+        Statistics classStatistics = statistics[task.priority.ordinal()];
+        classStatistics.queued.decrementAndGet();
+
+        long start = System.nanoTime();
+        long wait = start - task.submitted;
+        classStatistics.started.increment();
+        classStatistics.waitNanos.add(wait);
+        classStatistics.maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+        // cancelled while waiting
+        if (task.result.isDone()) return;
+
+        long slice = Math.max(MIN_SLICE_MILLIS, Math.min(task.sliceMillis, (task.deadline - start) / 1_000_000L));
+        T value = null;
+        Throwable failure = null;
+        active.incrementAndGet();
+        try {
+            value = task.work.apply(slice);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            active.decrementAndGet();
+        }
+
+        // counted before the result is handed out, so the statistics include it
+        if (System.nanoTime() - task.deadline > 0) classStatistics.missedDeadlines.increment();
+        if (failure != null) task.result.completeExceptionally(failure);
+        else task.result.complete(value);
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * @return the number of threads running a task right now
+     */
+    public int getActiveThreads() {
+        return active.get();
+    }
+
+    /**
+     * @return the number of tasks of the given class waiting right now
+     */
+    public int getQueueDepth(Priority priority) {
+        return Math.max(0, statistics[priority.ordinal()].queued.get());
+    }
+
+    /**
+     * @return the number of tasks of the given class, which have left the queue
+     */
+    public long getStarted(Priority priority) {
+        return statistics[priority.ordinal()].started.sum();
+    }
+
+    public long getRejected(Priority priority) {
+        return statistics[priority.ordinal()].rejected.sum();
+    }
+
+    /**
+     * @return the number of tasks of the given class, which finished after their deadline
+     */
+    public long getMissedDeadlines(Priority priority) {
+        return statistics[priority.ordinal()].missedDeadlines.sum();
+    }
+
+    /**
+     * @return the average time the tasks of the given class waited in the queue
+     */
+    public double getAverageWaitMillis(Priority priority) {
+        Statistics classStatistics = statistics[priority.ordinal()];
+        long started = classStatistics.started.sum();
+        return started == 0 ? 0 : classStatistics.waitNanos.sum() / 1e6 / started;
+    }
+
+    public double getMaxWaitMillis(Priority priority) {
+        return statistics[priority.ordinal()].maxWaitNanos.get() / 1e6;
+    }
+
+    /**
+     * Stops the threads and cancels the waiting tasks. Running tasks are interrupted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Task<?> task; (task = queue.poll()) != null; ) {
+            statistics[task.priority.ordinal()].queued.decrementAndGet();
+            task.result.cancel(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("EngineScheduler[threads " + workers.length + ", active " + getActiveThreads());
+        for (Priority priority : Priority.values()) {
+            builder.append(String.format(", %s queued %d wait avg %.1f ms max %.1f ms missed %d rejected %d",
+                    priority, getQueueDepth(priority), getAverageWaitMillis(priority), getMaxWaitMillis(priority),
+                    getMissedDeadlines(priority), getRejected(priority)));
+        }
+        return builder.append(']').toString();
+    }
+}
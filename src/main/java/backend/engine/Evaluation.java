@@ -0,0 +1,15 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+/**
+ * Scores positions at the leaves of the search. Implementations must not change the game
+ * and should not allocate, since they are called for most of the nodes searched.
+ */
+public interface Evaluation {
+    /**
+     * @param colour The colour of the player, whose view is taken
+     * @return a score, positive if the given player is better off, well below Engine.WIN
+     */
+    int evaluate(Game game, boolean colour);
+}
@@ -0,0 +1,166 @@
+package backend.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluations and results of shallow searches, keyed by Game.getPositionKey, which is meant
+ * to be shared by all engines of the server (see getShared), since bots in different matches reach the same
+ * positions. Like the TranspositionTable, every entry takes the key XOR the data and the data, so entries
+ * torn by concurrent writes are treated as missing and no locks are needed.
+ * The entries are grouped into sets of eight. A new entry replaces the entry of the same position or
+ * is chosen by the CLOCK algorithm: a hand sweeps the set, sparing entries found since it passed them last.
+ * The reference bits and the hands are kept in byte arrays, which may be updated by racing threads,
+ * at worst evicting the wrong entry. All engines sharing a cache have to use the same Evaluation.
+ */
+public class EvaluationCache {
+    public static final int DEFAULT_MEGABYTES = 32;
+
+    /**
+     * Returned by probe if there is no entry deep enough
+     */
+    public static final int MISS = Integer.MIN_VALUE;
+
+    private static final int SET_SIZE = 8;
+    private static final int ENTRY_BYTES = 16;
+
+    // layout of the data: depth (8 bits), valid (1 bit), score (32 bits)
+    private static final long VALID = 1L << 8;
+    private static final int SCORE_SHIFT = 32;
+
+    private final long[] entries;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final long setMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final class Shared {
+        private static final EvaluationCache INSTANCE = new EvaluationCache(DEFAULT_MEGABYTES);
+    }
+
+    public EvaluationCache() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param megabytes The size of the entries, rounded down to a power of two
+     */
+    public EvaluationCache(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("The cache needs at least one megabyte");
+
+        long sets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (SET_SIZE * ENTRY_BYTES));
+        entries = new long[(int) (sets * SET_SIZE * 2)];
+        referenced = new byte[(int) (sets * SET_SIZE)];
+        hands = new byte[(int) sets];
+        setMask = sets - 1;
+    }
+
+    /**
+     * @return the cache shared by all engines of this process, created on first use
+     */
+    public static EvaluationCache getShared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @param minDepth The depth of the search needed, 0 for an evaluation
+     * @return the score stored for the given key with at least the given depth, MISS if there is none
+     */
+    public int probe(long key, int minDepth) {
+        int set = getSet(key);
+        for (int slot = set; slot < set + SET_SIZE; slot++) {
+            long data = entries[2 * slot + 1];
+            if ((entries[2 * slot] ^ data) != key || data == 0) continue;
+            if (getDepth(data) < minDepth) break;
+
+            // only written once the hand has passed, so most hits only read
+            if (referenced[slot] == 0) referenced[slot] = 1;
+            hits.increment();
+            return (int) (data >>> SCORE_SHIFT);
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * @param depth The depth of the search, which found the exact score, 0 for an evaluation
+     */
+    public void store(long key, int score, int depth) {
+        if (depth < 0 || depth > 0xFF) throw new IllegalArgumentException("The depth has to be between 0 and 255");
+
+        int set = getSet(key);
+        int victim = -1;
+        for (int slot = set; slot < set + SET_SIZE; slot++) {
+            long data = entries[2 * slot + 1];
+            if ((entries[2 * slot] ^ data) == key && data != 0) {
+                // a shallower result does not replace a deeper one
+                if (getDepth(data) > depth) return;
+                victim = slot;
+                break;
+            }
+        }
+        if (victim < 0) victim = sweep(set);
+
+        long data = (long) score << SCORE_SHIFT | VALID | depth;
+        entries[2 * victim] = key ^ data;
+        entries[2 * victim + 1] = data;
+        referenced[victim] = 0;
+    }
+
+    /**
+     * Moves the hand of the given set to the first entry, which has not been found since the hand
+     * passed it last, and clears the reference bits on the way.
+     * @return the entry to replace
+     */
+    private int sweep(int set) {
+        int setIndex = set / SET_SIZE;
+        int hand = hands[setIndex];
+        // after one round all reference bits are cleared, so a second round always ends
+        for (int step = 0; step < 2 * SET_SIZE; step++) {
+            int slot = set + hand;
+            hand = (hand + 1) & (SET_SIZE - 1);
+            if (referenced[slot] == 0 || entries[2 * slot + 1] == 0) break;
+            referenced[slot] = 0;
+        }
+        hands[setIndex] = (byte) hand;
+        return set + ((hand - 1) & (SET_SIZE - 1));
+    }
+
+    /**
+     * Forgets all entries. Must not be called while the cache is in use.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+        Arrays.fill(referenced, (byte) 0);
+        Arrays.fill(hands, (byte) 0);
+        hits.reset();
+        misses.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the share of the probes, which found an entry
+     */
+    public double getHitRate() {
+        long found = getHits();
+        long probes = found + getMisses();
+        return probes == 0 ? 0 : (double) found / probes;
+    }
+
+    private int getSet(long key) {
+        return (int) (key & setMask) * SET_SIZE;
+    }
+
+    private static int getDepth(long data) {
+        return (int) data & 0xFF;
+    }
+}
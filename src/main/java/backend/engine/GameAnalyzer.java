@@ -0,0 +1,75 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameAnalysis;
+import interfaces.GamePhase;
+
+/**
+ * Replays recorded games and searches every position, to find the best moves and the blunders (see GameAnalysis).
+ * The score lost by a move is the score of the best move minus the score of the move played, which is
+ * the score of the next position searched one ply less deep, so both scores look equally far ahead.
+ * Like in the search, it is negated, unless the player acts again after closing a mill without a stone to remove.
+ * An analyzer keeps an engine, so it is only used by one thread at a time.
+ */
+public class GameAnalyzer {
+    public static final int DEFAULT_DEPTH = 6;
+
+    private final Engine engine;
+    private final int depth;
+
+    public GameAnalyzer() {
+        this(new Engine(new DefaultEvaluation(), new TranspositionTable(4), null, EvaluationCache.getShared()), DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param depth The depth every position is searched to, unless the time is up first. The position after
+     *              the move played is searched one ply less deep, so at least 2
+     */
+    public GameAnalyzer(Engine engine, int depth) {
+        if (depth < 2) throw new IllegalArgumentException("The depth has to be at least 2");
+
+        this.engine = engine;
+        this.depth = depth;
+    }
+
+    /**
+     * @param startingPlayer The player, who made the first move
+     * @param plies The moves of the game (see Move for the encoding), moves closing a mill with their removal
+     * @param millis The time every position may be searched for
+     * @throws IllegalArgumentException Should a move not be legal
+     */
+    public GameAnalysis analyze(boolean startingPlayer, int[] plies, long millis) {
+        Game game = Game.startedBy(startingPlayer);
+        String[] played = new String[plies.length];
+        String[] bestMoves = new String[plies.length];
+        int[] scores = new int[plies.length];
+        int[] losses = new int[plies.length];
+
+        for (int ply = 0; ply < plies.length; ply++) {
+            if (!game.isLegal(plies[ply]))
+                throw new IllegalArgumentException("Ply " + ply + " " + Move.toString(plies[ply]) + " is not legal");
+
+            SearchResult best = engine.search(game, millis, depth);
+            boolean colour = game.getActingPlayer();
+            game.makeMove(plies[ply]);
+
+            played[ply] = Move.toString(plies[ply]);
+            bestMoves[ply] = Move.toString(best.getMove());
+            scores[ply] = best.getScore();
+            losses[ply] = Math.max(0, best.getScore() - getScoreOfMove(game, colour, millis));
+        }
+        return new GameAnalysis(startingPlayer, played, bestMoves, scores, losses);
+    }
+
+    /**
+     * @return the score of the move, which led to the given game, for the given player, who made it
+     */
+    private int getScoreOfMove(Game game, boolean colour, long millis) {
+        if (game.isDraw()) return 0;
+        // the player to act at the end of the game has lost
+        if (game.getPhase() == GamePhase.GAME_OVER) return Engine.WIN;
+        int score = engine.search(game, millis, depth - 1).getScore();
+        return game.getActingPlayer() == colour ? score : -score;
+    }
+}
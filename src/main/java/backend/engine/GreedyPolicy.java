@@ -0,0 +1,51 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GamePhase;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the move leading to the position with the best evaluation, a winning move if there is one.
+ * Moves with the same evaluation are chosen at random.
+ */
+public class GreedyPolicy implements Policy {
+    private final Evaluation evaluation;
+    private final int[] moves = new int[Game.MAX_MOVES];
+
+    public GreedyPolicy() {
+        this(new DefaultEvaluation());
+    }
+
+    public GreedyPolicy(Evaluation evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        boolean colour = game.getActingPlayer();
+        int count = game.generateMoves(moves);
+
+        int bestMove = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            int score = game.isDraw() ? 0
+                    : game.getPhase() == GamePhase.GAME_OVER ? Engine.WIN
+                    : evaluation.evaluate(game, colour);
+            game.unmakeMove();
+
+            if (score > bestScore) {
+                bestMove = moves[i];
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                // every move of the best ones is kept with the same probability
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,144 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GamePhase;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suggests moves to players. The moves are searched as INTERACTIVE tasks of an EngineScheduler within
+ * a fixed time and cached by Game.getPositionKey, so asking again, or for a position another player has
+ * asked for, costs nothing. Requests for a position, which is being searched, share the search.
+ * Like the TranspositionTable, the cache is a table of the key XOR the data and the data, so it needs no
+ * locks. It is direct-mapped: a hint replaces the hint stored in its slot, unless that is a deeper one
+ * of the same position.
+ */
+public class HintProvider {
+    public static final long DEFAULT_MILLIS = 500;
+    public static final int DEFAULT_ENTRIES = 1 << 16;
+
+    // the player waits for the hint, but the search is stopped after its time anyway
+    private static final long DEADLINE_FACTOR = 4;
+
+    // layout of the data: move (15 bits), depth (8 bits), valid (1 bit)
+    private static final int MOVE_MASK = (1 << 15) - 1;
+    private static final int DEPTH_SHIFT = 15;
+    private static final long VALID = 1L << 23;
+
+    private final EngineScheduler scheduler;
+    private final long millis;
+    private final long[] entries;
+    private final int mask;
+    private final Map<Long, CompletableFuture<Integer>> searches = new ConcurrentHashMap<>();
+
+    // engines are not thread-safe, so every thread of the scheduler gets its own
+    private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(() -> new Engine(
+            new DefaultEvaluation(),
+            new TranspositionTable(1),
+            null,
+            EvaluationCache.getShared()
+    ));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder searched = new LongAdder();
+
+    public HintProvider(EngineScheduler scheduler) {
+        this(scheduler, DEFAULT_MILLIS, DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param millis The time a hint is searched for
+     * @param entries The number of hints cached, rounded down to a power of two
+     */
+    public HintProvider(EngineScheduler scheduler, long millis, int entries) {
+        if (millis < 1) throw new IllegalArgumentException("The time of a search has to be at least 1 ms");
+        if (entries < 1) throw new IllegalArgumentException("At least one hint has to be cached");
+
+        this.scheduler = scheduler;
+        this.millis = millis;
+        int size = Integer.highestOneBit(entries);
+        this.entries = new long[2 * size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Suggests a move of the acting player of the given game. The game is copied, so it may change
+     * while the hint is searched.
+     * @return the move (see Move for the encoding), Move.NONE if there is no legal move. Completes
+     * exceptionally, should the scheduler have rejected the search.
+     */
+    public CompletableFuture<Integer> getHint(Game game) {
+        if (game.getPhase() == GamePhase.GAME_OVER) return CompletableFuture.completedFuture(Move.NONE);
+
+        long key = game.getPositionKey();
+        int cached = probe(key);
+        if (cached != Move.NONE) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Integer> hint = new CompletableFuture<>();
+        CompletableFuture<Integer> running = searches.putIfAbsent(key, hint);
+        if (running != null) return running;
+
+        Game position = game.copy();
+        try {
+            scheduler.submit(EngineScheduler.Priority.INTERACTIVE, millis, millis * DEADLINE_FACTOR, slice -> {
+                SearchResult result = engines.get().search(position, slice, Engine.MAX_PLY - 1);
+                searched.increment();
+                store(key, result.getMove(), result.getDepth());
+                return result.getMove();
+            }).whenComplete((move, error) -> {
+                // removed first, the cache answers from then on
+                searches.remove(key, hint);
+                if (error != null) hint.completeExceptionally(error);
+                else hint.complete(move);
+            });
+        } catch (RejectedExecutionException e) {
+            searches.remove(key, hint);
+            hint.completeExceptionally(e);
+        }
+        return hint;
+    }
+
+    /**
+     * @return the cached hint of the given position, Move.NONE if there is none
+     */
+    int probe(long key) {
+        int slot = (int) key & mask;
+        long data = entries[2 * slot + 1];
+        if ((entries[2 * slot] ^ data) != key || (data & VALID) == 0) return Move.NONE;
+        return (int) data & MOVE_MASK;
+    }
+
+    void store(long key, int move, int depth) {
+        if (move == Move.NONE) return;
+
+        int slot = (int) key & mask;
+        long old = entries[2 * slot + 1];
+        if ((entries[2 * slot] ^ old) == key && (old & VALID) != 0 && (old >>> DEPTH_SHIFT & 0xFF) > depth) return;
+
+        long data = move | (long) Math.min(depth, 0xFF) << DEPTH_SHIFT | VALID;
+        entries[2 * slot] = key ^ data;
+        entries[2 * slot + 1] = data;
+    }
+
+    /**
+     * @return the number of hints answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of hints searched
+     */
+    public long getSearched() {
+        return searched.sum();
+    }
+}
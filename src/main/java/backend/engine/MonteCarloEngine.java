@@ -0,0 +1,280 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monte-Carlo tree search: every iteration walks down the tree choosing the children by UCT, expands the leaf
+ * it reaches and plays random moves from there until the game is over. The result is added to all nodes
+ * on the way. The move played most often at the root is the best one, so the strength grows smoothly
+ * with the iterations allowed.
+ * All threads search the same tree (tree parallelism). A thread walking down counts a virtual loss
+ * for every node on its way, until its playout is done, so the other threads spread to other nodes.
+ * The nodes are taken from a NodeArena allocated with the engine and reused by every search, so searching
+ * does not allocate. Once the arena is full, the leaves are played out without being expanded.
+ */
+public class MonteCarloEngine implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /**
+     * Score of a search, whose root moves have won every playout
+     */
+    public static final int MAX_SCORE = 1000;
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int VIRTUAL_LOSS = 3;
+    // a leaf is expanded once it has been visited this often before, so not every playout allocates nodes
+    private static final int EXPAND_VISITS = 1;
+    // playouts going on longer are draws, as games in the move phase may go on forever
+    private static final int MAX_PLAYOUT_PLIES = 200;
+    // the clock is only read every CHECK_INTERVAL + 1 iterations
+    private static final int CHECK_INTERVAL = 63;
+
+    private final NodeArena arena;
+    private final Worker[] workers;
+    private final ExecutorService helpers;
+
+    private final AtomicInteger iterations = new AtomicInteger();
+    private int maxIterations;
+    private long deadline;
+    private volatile boolean stopped;
+
+    public MonteCarloEngine() {
+        this(1, DEFAULT_CAPACITY, System.nanoTime());
+    }
+
+    /**
+     * @param threads The thread budget, including the calling thread
+     * @param capacity The number of nodes the tree may have, the moves of the root are added in any case
+     * @param seed The seed of the random playouts, so searches with a single thread can be repeated
+     */
+    public MonteCarloEngine(int threads, int capacity, long seed) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+
+        arena = new NodeArena(capacity);
+        SplittableRandom random = new SplittableRandom(seed);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(random.split());
+        }
+
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-helper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Searches the best move of the acting player. The given game is not changed.
+     * @param millis The wall-clock time, after which the search is stopped
+     * @param maxIterations The node budget: the number of playouts, after which the search is stopped
+     * @return the root move played most often, its score from -MAX_SCORE (all playouts lost)
+     * to MAX_SCORE (all won), the depth of the tree and the number of playouts
+     */
+    public synchronized SearchResult search(Game game, long millis, int maxIterations) {
+        long start = System.nanoTime();
+        Game position = game.copy();
+
+        int root = arena.reset(Move.NONE);
+        stopped = false;
+        iterations.set(0);
+        this.maxIterations = maxIterations;
+        deadline = start + millis * 1_000_000L;
+
+        workers[0].expand(position, root);
+        if (arena.getChildCount(root) == 0) return new SearchResult(Move.NONE, 0, 0, 0, System.nanoTime() - start);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            Game helperPosition = position.copy();
+            results.add(helpers.submit(() -> worker.run(helperPosition, root)));
+        }
+
+        int depth = workers[0].run(position, root);
+        stopped = true;
+        for (Future<Integer> result : results) {
+            try {
+                depth = Math.max(depth, result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+
+        int best = mostVisitedChild(root);
+        int visits = arena.getVisits(best);
+        int score = visits == 0 ? 0 : (int) ((long) MAX_SCORE * (arena.getPoints(best) - visits) / visits);
+        return new SearchResult(arena.getMove(best), score, depth, Math.min(iterations.get(), maxIterations), System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the running search as soon as possible. It still returns the best move found so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private int mostVisitedChild(int node) {
+        int first = arena.getFirstChild(node);
+        int best = first;
+        for (int child = first + 1; child < first + arena.getChildCount(node); child++) {
+            if (arena.getVisits(child) > arena.getVisits(best)) best = child;
+        }
+        return best;
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) helpers.shutdownNow();
+    }
+
+    /**
+     * The buffers of one thread of the search.
+     */
+    private class Worker {
+        private final SplittableRandom random;
+        private final int[] moves = new int[Game.MAX_MOVES];
+        private final int[] path = new int[MAX_PLAYOUT_PLIES + 1];
+        private final boolean[] movers = new boolean[MAX_PLAYOUT_PLIES + 1];
+
+        private Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /**
+         * Runs iterations until the search is stopped.
+         * @return the deepest leaf reached
+         */
+        private int run(Game game, int root) {
+            int maxDepth = 0;
+            while (!stopped) {
+                int iteration = iterations.getAndIncrement();
+                if (iteration >= maxIterations || (iteration & CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) break;
+
+                maxDepth = Math.max(maxDepth, iterate(game, root));
+            }
+            stopped = true;
+            return maxDepth;
+        }
+
+        /**
+         * Walks down to a leaf, expands it, plays it out and adds the result to the nodes on the way.
+         * @return the depth of the leaf
+         */
+        private int iterate(Game game, int root) {
+            int node = root;
+            int depth = 0;
+
+            while (arena.isExpanded(node) && depth < MAX_PLAYOUT_PLIES) {
+                node = descend(game, node, ++depth);
+            }
+
+            // the virtual loss of this thread does not count as a visit. A finished game has no moves,
+            // so its node becomes terminal when it is expanded
+            if (depth < MAX_PLAYOUT_PLIES && arena.isLeaf(node) && arena.getVisits(node) - VIRTUAL_LOSS >= EXPAND_VISITS) {
+                expand(game, node);
+                if (arena.isExpanded(node)) node = descend(game, node, ++depth);
+            }
+
+            Boolean winner = playout(game);
+            for (int i = depth; i > 0; i--) {
+                arena.addVisits(path[i], 1 - VIRTUAL_LOSS);
+                arena.addPoints(path[i], winner == null ? 1 : winner == movers[i] ? 2 : 0);
+                game.unmakeMove();
+            }
+            arena.addVisits(root, 1);
+            return depth;
+        }
+
+        /**
+         * Makes the move of the selected child and counts a virtual loss for it.
+         * @return the child
+         */
+        private int descend(Game game, int node, int depth) {
+            movers[depth] = game.getActingPlayer();
+            int child = select(node);
+            arena.addVisits(child, VIRTUAL_LOSS);
+            game.makeMove(arena.getMove(child));
+            path[depth] = child;
+            return child;
+        }
+
+        /**
+         * @return the child with the highest upper confidence bound, an unvisited child first
+         */
+        private int select(int node) {
+            int first = arena.getFirstChild(node);
+            int count = arena.getChildCount(node);
+            double logVisits = Math.log(Math.max(arena.getVisits(node), 1));
+
+            int best = first;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            // the children are searched from a random one on, so unvisited children are tried in random order
+            int offset = random.nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int child = first + (i + offset) % count;
+                int visits = arena.getVisits(child);
+                if (visits == 0) return child;
+
+                double bound = arena.getPoints(child) / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (bound > bestBound) {
+                    best = child;
+                    bestBound = bound;
+                }
+            }
+            return best;
+        }
+
+        private void expand(Game game, int node) {
+            if (!arena.startExpansion(node)) return;
+
+            int count = game.generateMoves(moves);
+            int first = count == 0 ? NodeArena.NO_NODE : arena.allocate(count);
+            if (first == NodeArena.NO_NODE) {
+                arena.finishExpansion(node, NodeArena.NO_NODE, 0);
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                arena.initialize(first + i, moves[i]);
+            }
+            arena.finishExpansion(node, first, count);
+        }
+
+        /**
+         * Plays random moves until the game is over and takes them back.
+         * @return the winner, null for a draw
+         */
+        private Boolean playout(Game game) {
+            int plies = 0;
+            int count;
+            while (plies < MAX_PLAYOUT_PLIES && (count = game.generateMoves(moves)) > 0) {
+                game.makeMove(moves[random.nextInt(count)]);
+                plies++;
+            }
+
+            Boolean winner = game.getWinner();
+            for (; plies > 0; plies--) {
+                game.unmakeMove();
+            }
+            return winner;
+        }
+    }
+}
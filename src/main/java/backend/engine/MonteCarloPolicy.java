@@ -0,0 +1,36 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves found by a MonteCarloEngine with a fixed number of playouts per move,
+ * using a single thread.
+ */
+public class MonteCarloPolicy implements Policy {
+    // the playouts limit the search, not the clock
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE / 2_000_000L;
+    // most positions have a few dozen moves, the moves of the root always fit (see NodeArena)
+    private static final int NODES_PER_ITERATION = 32;
+
+    private final MonteCarloEngine engine;
+    private final int iterations;
+
+    public MonteCarloPolicy(int iterations, long seed) {
+        if (iterations < 1) throw new IllegalArgumentException("At least one playout is needed");
+
+        this.engine = new MonteCarloEngine(1, (int) Math.min(MonteCarloEngine.DEFAULT_CAPACITY, (long) iterations * NODES_PER_ITERATION), seed);
+        this.iterations = iterations;
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        return engine.search(game, NO_TIME_LIMIT, iterations).getMove();
+    }
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random, long millis) {
+        return engine.search(game, millis, iterations).getMove();
+    }
+}
@@ -0,0 +1,145 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The nodes of a MonteCarloEngine tree, stored in arrays allocated once and reused for every search,
+ * so searching does not produce garbage. A node is an index into the arrays. The children of a node
+ * are allocated together, so they are the indices firstChild to firstChild + childCount - 1.
+ * The children of the root always fit, even beyond the capacity, so a search always has its moves to choose from.
+ * The statistics are updated atomically by all threads, the structure of a node is written before
+ * it is published by setting its state to EXPANDED.
+ */
+final class NodeArena {
+    static final int NO_NODE = -1;
+
+    // states of a node
+    static final int LEAF = 0;
+    static final int EXPANDING = 1;
+    static final int EXPANDED = 2;
+    // a node without moves or without room for its children in the arena, which is played out from then on
+    static final int TERMINAL = 3;
+
+    private final int[] moves;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    // the results of the playouts through a node in half points (2 for a win, 1 for a draw),
+    // from the view of the player, who made the move leading to the node
+    private final AtomicIntegerArray points;
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    NodeArena(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("The arena needs room for at least one node");
+
+        this.capacity = capacity;
+        int length = Math.max(capacity, 1 + Game.MAX_MOVES);
+        moves = new int[length];
+        firstChild = new int[length];
+        childCount = new int[length];
+        states = new AtomicIntegerArray(length);
+        visits = new AtomicIntegerArray(length);
+        points = new AtomicIntegerArray(length);
+    }
+
+    /**
+     * Drops all nodes and allocates the root.
+     * @return the root node
+     */
+    int reset(int move) {
+        size.set(0);
+        int root = allocate(1);
+        initialize(root, move);
+        return root;
+    }
+
+    /**
+     * Allocates the given number of nodes in a row, which have to be initialized.
+     * @return the first node or NO_NODE if the arena is full
+     */
+    int allocate(int count) {
+        int first;
+        do {
+            first = size.get();
+            // the root is the first node, so its children come next
+            int limit = first == 1 ? moves.length : capacity;
+            if (first + count > limit) return NO_NODE;
+        } while (!size.compareAndSet(first, first + count));
+        return first;
+    }
+
+    void initialize(int node, int move) {
+        moves[node] = move;
+        firstChild[node] = NO_NODE;
+        childCount[node] = 0;
+        visits.set(node, 0);
+        points.set(node, 0);
+        states.set(node, LEAF);
+    }
+
+    /**
+     * Claims a leaf for expansion, so only one thread expands it.
+     */
+    boolean startExpansion(int node) {
+        return states.compareAndSet(node, LEAF, EXPANDING);
+    }
+
+    /**
+     * Publishes the children of a node claimed with startExpansion. Without children, the node is terminal,
+     * so it is not expanded again.
+     */
+    void finishExpansion(int node, int first, int count) {
+        firstChild[node] = first;
+        childCount[node] = count;
+        states.set(node, count == 0 ? TERMINAL : EXPANDED);
+    }
+
+    boolean isExpanded(int node) {
+        return states.get(node) == EXPANDED;
+    }
+
+    boolean isLeaf(int node) {
+        return states.get(node) == LEAF;
+    }
+
+    int getMove(int node) {
+        return moves[node];
+    }
+
+    int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    int getChildCount(int node) {
+        return childCount[node];
+    }
+
+    int getVisits(int node) {
+        return visits.get(node);
+    }
+
+    int getPoints(int node) {
+        return points.get(node);
+    }
+
+    void addVisits(int node, int count) {
+        visits.addAndGet(node, count);
+    }
+
+    void addPoints(int node, int halfPoints) {
+        points.addAndGet(node, halfPoints);
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
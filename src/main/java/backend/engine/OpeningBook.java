@@ -0,0 +1,149 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Symmetry;
+import interfaces.GameInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The moves played in the openings of archived games (see OpeningBookBuilder), looked up by bots before they
+ * search. Positions are stored by Game.getCanonicalPositionKey and their moves transformed by the symmetry,
+ * which maps the position onto its representative (see Symmetry), so all positions of a symmetry class share
+ * their moves. The book is a file of fixed-size records (key, move, games, wins, draws) sorted by key
+ * and move, which is memory-mapped and searched binarily, so it does not have to be read into the heap.
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x4D4F4231;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 24;
+
+    private final ByteBuffer records;
+    private final int size;
+    private final int plies;
+
+    OpeningBook(ByteBuffer records, int plies) {
+        this.records = records;
+        this.size = records.capacity() / RECORD_BYTES;
+        this.plies = plies;
+    }
+
+    /**
+     * Maps a book file written by OpeningBookBuilder into memory.
+     * @throws IOException Should the file not be readable or not be an opening book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException(path + " is not an opening book");
+
+            int plies = header.getInt();
+            long size = channel.size() - HEADER_BYTES;
+            if (plies < 0 || size % RECORD_BYTES != 0 || size > Integer.MAX_VALUE) throw new IOException(path + " is not an opening book");
+
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size), plies);
+        }
+    }
+
+    /**
+     * Writes the given records (see OpeningBook), which have to be sorted.
+     */
+    static void write(Path path, int plies, ByteBuffer records) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            out.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(plies).array());
+            out.write(records.array(), 0, records.limit());
+        }
+    }
+
+    /**
+     * @return the number of plies of the games, which have been added to the book
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * @return the number of moves in the book, of all positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the moves played in the position of the given game.
+     * @return the moves, transformed for the given game, empty if the position is not in the book
+     */
+    public List<BookMove> lookup(Game game) {
+        List<BookMove> moves = new ArrayList<>();
+        int record = findFirst(game.getCanonicalPositionKey());
+        if (record < 0) return moves;
+
+        int inverse = Symmetry.inverse(Symmetry.canonicalSymmetry(
+                game.getStones(GameInterface.COLOUR_WHITE), game.getStones(GameInterface.COLOUR_BLACK)));
+        long key = getKey(record);
+        for (; record < size && getKey(record) == key; record++) {
+            int offset = record * RECORD_BYTES;
+            moves.add(new BookMove(
+                    Symmetry.transformMove(inverse, records.getInt(offset + 8)),
+                    records.getInt(offset + 12),
+                    records.getInt(offset + 16),
+                    records.getInt(offset + 20)
+            ));
+        }
+        return moves;
+    }
+
+    /**
+     * Chooses one of the book moves of the position of the given game with a probability proportional to
+     * the number of games it has been played in, so bots vary their openings like the archived players.
+     * Moves played in fewer than minGames games are left out.
+     * @return the move or Move.NONE if there is none
+     */
+    public int chooseMove(Game game, int minGames, SplittableRandom random) {
+        List<BookMove> moves = lookup(game);
+        long total = 0;
+        for (BookMove move : moves) {
+            if (move.getGames() >= minGames) total += move.getGames();
+        }
+        if (total == 0) return Move.NONE;
+
+        long chosen = random.nextLong(total);
+        for (BookMove move : moves) {
+            if (move.getGames() < minGames) continue;
+            chosen -= move.getGames();
+            if (chosen < 0) return move.getMove();
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return the first record of the given key, -1 if there is none
+     */
+    private int findFirst(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getKey(middle) < key) low = middle + 1;
+            else high = middle;
+        }
+        return low < size && getKey(low) == key ? low : -1;
+    }
+
+    private long getKey(int record) {
+        return records.getLong(record * RECORD_BYTES);
+    }
+}
@@ -0,0 +1,150 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Symmetry;
+import interfaces.GameInterface;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an OpeningBook from an archive of games in the format written by SelfPlay: one game per line,
+ * the result (1-0, 0-1 or 1/2-1/2), the starting player (white or black) and the moves in the usual notation.
+ * Games without the starting player have been started by white. Empty lines and lines
+ * starting with # are skipped. The first plies of every game are replayed and every move is counted
+ * with the result for the player, who made it.
+ * Usage: OpeningBookBuilder [archive] [book] [plies] [min games]
+ */
+public class OpeningBookBuilder {
+    public static final int DEFAULT_PLIES = 18;
+
+    private final int plies;
+    // the moves of every position, by canonical key and canonical move
+    private final Map<Long, Map<Integer, int[]>> positions = new HashMap<>();
+    private int games;
+
+    /**
+     * @param plies The number of plies of every game, which are added to the book
+     */
+    public OpeningBookBuilder(int plies) {
+        if (plies < 1) throw new IllegalArgumentException("At least one ply has to be added");
+        this.plies = plies;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path archive = Path.of(args.length > 0 ? args[0] : "games.txt");
+        Path book = Path.of(args.length > 1 ? args[1] : "book.bin");
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+        int minGames = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        try (Reader reader = Files.newBufferedReader(archive)) {
+            builder.addGames(reader);
+        }
+        builder.write(book, minGames);
+        System.out.printf("Added %,d games to %s%n", builder.getGames(), book);
+    }
+
+    /**
+     * Adds all games of the given archive.
+     * @throws IllegalArgumentException Should a line not be a game or contain an illegal move
+     */
+    public void addGames(Reader archive) throws IOException {
+        BufferedReader reader = new BufferedReader(archive);
+        int lineNumber = 0;
+        for (String line; (line = reader.readLine()) != null; ) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            try {
+                addGame(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Adds a game in the format of an archive line.
+     */
+    public void addGame(String line) {
+        String[] parts = line.trim().split("\\s+");
+        Boolean winner = switch (parts[0]) {
+            case "1-0" -> GameInterface.COLOUR_WHITE;
+            case "0-1" -> GameInterface.COLOUR_BLACK;
+            case "1/2-1/2" -> null;
+            default -> throw new IllegalArgumentException("There is no result " + parts[0]);
+        };
+
+        // the keys cover the turn and the inventories, so the game has to be started by the same player
+        int firstMove = 1;
+        boolean startingPlayer = GameInterface.COLOUR_WHITE;
+        if (parts.length > 1 && (parts[1].equals("white") || parts[1].equals("black"))) {
+            startingPlayer = parts[1].equals("white") ? GameInterface.COLOUR_WHITE : GameInterface.COLOUR_BLACK;
+            firstMove = 2;
+        }
+        Game game = Game.startedBy(startingPlayer);
+
+        for (int ply = 0; ply < plies && ply + firstMove < parts.length; ply++) {
+            int move = Move.fromString(parts[ply + firstMove]);
+            if (!game.isLegal(move)) throw new IllegalArgumentException(parts[ply + firstMove] + " is not a legal move");
+
+            boolean colour = game.getActingPlayer();
+            int symmetry = Symmetry.canonicalSymmetry(game.getStones(GameInterface.COLOUR_WHITE), game.getStones(GameInterface.COLOUR_BLACK));
+            int[] results = positions
+                    .computeIfAbsent(game.getCanonicalPositionKey(), key -> new HashMap<>())
+                    .computeIfAbsent(Symmetry.transformMove(symmetry, move), key -> new int[3]);
+            results[0]++;
+            if (winner == null) results[2]++;
+            else if (winner == colour) results[1]++;
+
+            game.makeMove(move);
+        }
+        games++;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @param minGames The number of games a move has to be played in to be part of the book
+     */
+    public OpeningBook build(int minGames) {
+        return new OpeningBook(createRecords(minGames), plies);
+    }
+
+    public void write(Path path, int minGames) throws IOException {
+        OpeningBook.write(path, plies, createRecords(minGames));
+    }
+
+    private ByteBuffer createRecords(int minGames) {
+        List<long[]> records = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, int[]>> position : positions.entrySet()) {
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                int[] results = move.getValue();
+                if (results[0] >= minGames) {
+                    records.add(new long[] {position.getKey(), move.getKey(), results[0], results[1], results[2]});
+                }
+            }
+        }
+        records.sort(Comparator.<long[]>comparingLong(record -> record[0]).thenComparingLong(record -> record[1]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * OpeningBook.RECORD_BYTES);
+        for (long[] record : records) {
+            buffer.putLong(record[0]).putInt((int) record[1]).putInt((int) record[2]).putInt((int) record[3]).putInt((int) record[4]);
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,106 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches one position with several threads (Lazy SMP): every thread runs its own Engine on the same
+ * position and all of them share one transposition table, so the helpers speed up the main search by
+ * filling the table. The helpers run on low-priority daemon threads, so regular matches keep priority
+ * on a busy server. The result is the one of the main search, which runs on the calling thread.
+ */
+public class ParallelEngine implements AutoCloseable {
+    private final Engine[] engines;
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads The thread budget, including the calling thread
+     */
+    public ParallelEngine(Evaluation evaluation, TranspositionTable table, int threads) {
+        this(evaluation, table, null, threads);
+    }
+
+    /**
+     * @param tablebase Endgames to look up instead of searching them, may be null
+     * @param threads The thread budget, including the calling thread
+     */
+    public ParallelEngine(Evaluation evaluation, TranspositionTable table, Tablebase tablebase, int threads) {
+        this(evaluation, table, tablebase, null, threads);
+    }
+
+    /**
+     * @param tablebase Endgames to look up instead of searching them, may be null
+     * @param cache Evaluations and shallow results shared with other engines, may be null
+     * @param threads The thread budget, including the calling thread
+     */
+    public ParallelEngine(Evaluation evaluation, TranspositionTable table, Tablebase tablebase, EvaluationCache cache, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+
+        engines = new Engine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new Engine(evaluation, table, tablebase, cache);
+        }
+
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.table = table;
+    }
+
+    public int getThreads() {
+        return engines.length;
+    }
+
+    /**
+     * Searches the best move of the acting player like Engine.search, using all threads of the budget.
+     * The nodes of the result include the nodes of all helpers.
+     */
+    public synchronized SearchResult search(Game game, long millis, int maxDepth) {
+        Game position = game.copy();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        table.newSearch();
+
+        List<Future<SearchResult>> results = new ArrayList<>();
+        for (int i = 1; i < engines.length; i++) {
+            Engine engine = engines[i];
+            Game helperPosition = position.copy();
+            int helper = i;
+            engine.resetStop();
+            results.add(helpers.submit(() -> engine.search(helperPosition, deadline, maxDepth, helper)));
+        }
+
+        engines[0].resetStop();
+        SearchResult result = engines[0].search(position, deadline, maxDepth, 0);
+
+        long nodes = result.getNodes();
+        for (int i = 1; i < engines.length; i++) {
+            engines[i].stop();
+        }
+        for (Future<SearchResult> helperResult : results) {
+            try {
+                nodes += helperResult.get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+
+        return new SearchResult(result.getMove(), result.getScore(), result.getDepth(), nodes, result.getNanos());
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) helpers.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+package backend.engine;
+
+import backend.logic.Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a player, e.g. of a bot or in self-play. A policy may keep buffers and tables,
+ * so it is only used by one thread at a time.
+ */
+public interface Policy {
+    /**
+     * Chooses a move of the acting player. The game may be changed with makeMove and unmakeMove,
+     * but has to be left as it was.
+     * @param random The random numbers to choose with, so games can be repeated
+     * @return a move (see Move for the encoding), Move.NONE if there is no legal move
+     */
+    int chooseMove(Game game, SplittableRandom random);
+
+    /**
+     * Chooses a move within the given time, e.g. the time slice of an EngineScheduler. Policies, which
+     * search, override this to stop in time, the others do not need the time.
+     * @param millis The wall-clock time the choice may take
+     */
+    default int chooseMove(Game game, SplittableRandom random, long millis) {
+        return chooseMove(game, random);
+    }
+}
@@ -0,0 +1,19 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses one of the legal moves at random, all of them with the same probability.
+ */
+public class RandomPolicy implements Policy {
+    private final int[] moves = new int[Game.MAX_MOVES];
+
+    @Override
+    public int chooseMove(Game game, SplittableRandom random) {
+        int count = game.generateMoves(moves);
+        return count == 0 ? Move.NONE : moves[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,66 @@
+package backend.engine;
+
+import backend.logic.Move;
+
+/**
+ * Outcome of a search: the best move found (see Move for the encoding) and its score
+ * from the view of the player, who makes it.
+ */
+public class SearchResult {
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+
+    public SearchResult(int move, int score, int depth, long nodes, long nanos) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return the best move, Move.NONE if there is no legal move
+     */
+    public int getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return the depth of the last completed iteration
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * @return true if the score is a forced win or loss
+     */
+    public boolean isDecisive() {
+        return Math.abs(score) >= Engine.WIN - Engine.MAX_DISTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return (move == Move.NONE ? "none" : Move.toString(move))
+                + " score " + score + " depth " + depth + " nodes " + nodes + " nps " + getNodesPerSecond();
+    }
+}
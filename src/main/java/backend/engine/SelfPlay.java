@@ -0,0 +1,191 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games between two policies on a fork-join pool and adds them up in a SelfPlayResult.
+ * The games are split into tasks of GAMES_PER_TASK games, every task with its own policies and games,
+ * so the threads share nothing but the striped counters of the result. The games are played with
+ * makeMove, so no snapshots are published. A game, which is not over after maxPlies plies, is a draw.
+ * The random numbers of a task only depend on the seed and the number of its first game,
+ * so a run can be repeated with any number of threads.
+ * White starts the games with even numbers, black the others, as matches are started by either player.
+ * Optionally every game is written to an archive, one line per game: the result (1-0, 0-1 or 1/2-1/2),
+ * the starting player (white or black) and the moves in the usual notation (see Move.toString).
+ * Usage: SelfPlay [games] [white policy] [black policy] [threads] [archive], the policies being
+ * random, greedy, engine:depth or mcts:playouts
+ */
+public class SelfPlay {
+    public static final int DEFAULT_MAX_PLIES = 400;
+
+    private static final int GAMES_PER_TASK = 64;
+
+    private final Supplier<Policy> white;
+    private final Supplier<Policy> black;
+    private final int maxPlies;
+    private final int randomPlies;
+    private final long seed;
+
+    /**
+     * @param white Creates the policies of the white player, one per task
+     * @param black Creates the policies of the black player, one per task
+     * @param maxPlies The number of plies, after which a game is a draw
+     * @param randomPlies The number of plies at the start of every game, which are chosen at random,
+     * so games between deterministic policies differ
+     */
+    public SelfPlay(Supplier<Policy> white, Supplier<Policy> black, int maxPlies, int randomPlies, long seed) {
+        if (maxPlies < 1) throw new IllegalArgumentException("A game needs at least one ply");
+
+        this.white = white;
+        this.black = black;
+        this.maxPlies = maxPlies;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        Supplier<Policy> white = parsePolicy(args.length > 1 ? args[1] : "random");
+        Supplier<Policy> black = parsePolicy(args.length > 2 ? args[2] : "random");
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        SelfPlay selfPlay = new SelfPlay(white, black, DEFAULT_MAX_PLIES, 2, System.nanoTime());
+        if (args.length > 4) {
+            try (Writer archive = Files.newBufferedWriter(Path.of(args[4]))) {
+                System.out.println(selfPlay.play(games, threads, archive));
+            }
+        } else {
+            System.out.println(selfPlay.play(games, threads, null));
+        }
+    }
+
+    /**
+     * @param name random, greedy, engine:depth or mcts:playouts (per move)
+     */
+    public static Supplier<Policy> parsePolicy(String name) {
+        if (name.equals("random")) return RandomPolicy::new;
+        if (name.equals("greedy")) return GreedyPolicy::new;
+        if (name.startsWith("engine:")) {
+            int depth = Integer.parseInt(name.substring("engine:".length()));
+            return () -> new EnginePolicy(depth);
+        }
+        if (name.startsWith("mcts:")) {
+            int iterations = Integer.parseInt(name.substring("mcts:".length()));
+            return () -> new MonteCarloPolicy(iterations, System.nanoTime());
+        }
+        throw new IllegalArgumentException("There is no policy " + name + ", try random, greedy, engine:depth or mcts:playouts");
+    }
+
+    /**
+     * Plays the given number of games, white and black taking turns in starting them.
+     * @param archive Receives every game (see SelfPlay), may be null. Tasks write their games at once,
+     * so the order of the games is not kept
+     */
+    public SelfPlayResult play(long games, int threads, Writer archive) {
+        SelfPlayResult result = new SelfPlayResult();
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Games(0, games, result, archive));
+        } finally {
+            pool.shutdown();
+        }
+
+        result.setNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    // fork/join tasks are never serialized
+    @SuppressWarnings("serial")
+    private class Games extends RecursiveAction {
+        private final long first;
+        private final long count;
+        private final SelfPlayResult result;
+        private final Writer archive;
+
+        private Games(long first, long count, SelfPlayResult result, Writer archive) {
+            this.first = first;
+            this.count = count;
+            this.result = result;
+            this.archive = archive;
+        }
+
+        @Override
+        protected void compute() {
+            if (count > GAMES_PER_TASK) {
+                long half = count / 2;
+                invokeAll(new Games(first, half, result, archive), new Games(first + half, count - half, result, archive));
+                return;
+            }
+
+            Policy whitePolicy = white.get();
+            Policy blackPolicy = black.get();
+            Policy randomPolicy = new RandomPolicy();
+            SplittableRandom random = new SplittableRandom(seed ^ first * 0x9E3779B97F4A7C15L);
+            StringBuilder lines = archive == null ? null : new StringBuilder();
+
+            for (long game = first; game < first + count; game++) {
+                boolean startingPlayer = game % 2 == 0 ? GameInterface.COLOUR_WHITE : GameInterface.COLOUR_BLACK;
+                playGame(startingPlayer, whitePolicy, blackPolicy, randomPolicy, random, lines);
+            }
+
+            if (archive != null) {
+                // one write per task, so the threads rarely wait for each other
+                synchronized (archive) {
+                    try {
+                        archive.write(lines.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+
+        private void playGame(boolean startingPlayer, Policy whitePolicy, Policy blackPolicy, Policy randomPolicy,
+                              SplittableRandom random, StringBuilder lines) {
+            Game game = Game.startedBy(startingPlayer);
+
+            StringBuilder moves = lines == null ? null : new StringBuilder();
+            int placePlies = 0;
+            int movePlies = 0;
+            int jumpPlies = 0;
+
+            for (int ply = 0; ply < maxPlies && game.getPhase() != GamePhase.GAME_OVER; ply++) {
+                boolean colour = game.getActingPlayer();
+                Policy policy = ply < randomPlies ? randomPolicy : colour == GameInterface.COLOUR_WHITE ? whitePolicy : blackPolicy;
+                int move = policy.chooseMove(game, random);
+                if (move == Move.NONE) break;
+
+                if (game.getPhase() == GamePhase.PLACE_PHASE) placePlies++;
+                else if (game.isInJumpPhase(colour)) jumpPlies++;
+                else movePlies++;
+
+                game.makeMove(move);
+                if (moves != null) moves.append(' ').append(Move.toString(move));
+            }
+
+            Boolean winner = game.getWinner();
+            result.add(winner, placePlies, movePlies, jumpPlies);
+
+            if (lines != null) {
+                lines.append(winner == null ? "1/2-1/2" : winner == GameInterface.COLOUR_WHITE ? "1-0" : "0-1")
+                        .append(startingPlayer == GameInterface.COLOUR_WHITE ? " white" : " black")
+                        .append(moves).append('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package backend.engine;
+
+import interfaces.GameInterface;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals of the games played by SelfPlay. The counters are striped, so all threads add their games
+ * without contending for a lock or a single cache line.
+ */
+public class SelfPlayResult {
+    private final LongAdder whiteWins = new LongAdder();
+    private final LongAdder blackWins = new LongAdder();
+    private final LongAdder draws = new LongAdder();
+    private final LongAdder plies = new LongAdder();
+    private final LongAdder placePlies = new LongAdder();
+    private final LongAdder movePlies = new LongAdder();
+    private final LongAdder jumpPlies = new LongAdder();
+    private final LongAccumulator longestGame = new LongAccumulator(Math::max, 0);
+    private volatile long nanos;
+
+    /**
+     * Adds a game, which has been won by the given player, or is a draw if the winner is null.
+     * @param placePlies The plies played in the place phase
+     * @param movePlies The plies played in the move phase, by a player who does not jump
+     * @param jumpPlies The plies played by a player who jumps
+     */
+    void add(Boolean winner, int placePlies, int movePlies, int jumpPlies) {
+        if (winner == null) draws.increment();
+        else if (winner == GameInterface.COLOUR_WHITE) whiteWins.increment();
+        else blackWins.increment();
+
+        int length = placePlies + movePlies + jumpPlies;
+        plies.add(length);
+        this.placePlies.add(placePlies);
+        this.movePlies.add(movePlies);
+        this.jumpPlies.add(jumpPlies);
+        longestGame.accumulate(length);
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public long getGames() {
+        return whiteWins.sum() + blackWins.sum() + draws.sum();
+    }
+
+    public long getWins(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteWins.sum() : blackWins.sum();
+    }
+
+    public long getDraws() {
+        return draws.sum();
+    }
+
+    public double getWinRate(boolean colour) {
+        return rate(getWins(colour));
+    }
+
+    public double getDrawRate() {
+        return rate(getDraws());
+    }
+
+    /**
+     * @return the average number of plies of a game, a removal after a mill counts as part of the ply closing it
+     */
+    public double getAverageLength() {
+        return rate(plies.sum());
+    }
+
+    public double getAveragePlacePlies() {
+        return rate(placePlies.sum());
+    }
+
+    public double getAverageMovePlies() {
+        return rate(movePlies.sum());
+    }
+
+    public double getAverageJumpPlies() {
+        return rate(jumpPlies.sum());
+    }
+
+    public long getLongestGame() {
+        return longestGame.get();
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getGamesPerSecond() {
+        return nanos == 0 ? 0 : getGames() * 1e9 / nanos;
+    }
+
+    private double rate(long count) {
+        long games = getGames();
+        return games == 0 ? 0 : (double) count / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d games in %.1f s (%,.0f games/s)%n"
+                        + "white wins %.1f %%, black wins %.1f %%, draws %.1f %%%n"
+                        + "%.1f plies per game (longest %d): %.1f placing, %.1f moving, %.1f jumping",
+                getGames(), nanos / 1e9, getGamesPerSecond(),
+                100 * getWinRate(GameInterface.COLOUR_WHITE), 100 * getWinRate(GameInterface.COLOUR_BLACK), 100 * getDrawRate(),
+                getAverageLength(), getLongestGame(), getAveragePlacePlies(), getAverageMovePlies(), getAverageJumpPlies());
+    }
+}
@@ -0,0 +1,57 @@
+package backend.engine;
+
+import backend.logic.Game;
+import interfaces.IllegalMoveException;
+
+/**
+ * Measures the nodes per second and the speedup of ParallelEngine for 1, 2, 4, ... threads.
+ * The speedup is the time the single thread needs to reach the given depth, divided by the time
+ * the threads need, averaged over a few positions from a short game of the engine against itself.
+ * Usage: SmpBenchmark [depth] [max threads]
+ */
+public class SmpBenchmark {
+    private static final int POSITIONS = 4;
+    private static final int PLIES_BETWEEN_POSITIONS = 6;
+
+    public static void main(String[] args) throws IllegalMoveException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Game[] positions = createPositions();
+        double singleThreadSeconds = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long nodes = 0;
+            long nanos = 0;
+
+            for (Game position : positions) {
+                // a fresh table for every run, so no run profits from an earlier one
+                try (ParallelEngine engine = new ParallelEngine(new DefaultEvaluation(), new TranspositionTable(64), threads)) {
+                    SearchResult result = engine.search(position, Long.MAX_VALUE / 2_000_000L, depth);
+                    nodes += result.getNodes();
+                    nanos += result.getNanos();
+                }
+            }
+
+            double seconds = nanos / 1e9;
+            if (threads == 1) singleThreadSeconds = seconds;
+            System.out.printf("%2d threads: %8.2f s, %,12d nodes/s, speedup %.2f%n",
+                    threads, seconds, (long) (nodes / seconds), singleThreadSeconds / seconds);
+        }
+    }
+
+    private static Game[] createPositions() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        Engine engine = new Engine();
+        int[] moves = new int[Game.MAX_MOVES];
+        Game[] positions = new Game[POSITIONS];
+
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = game.copy();
+            for (int ply = 0; ply < PLIES_BETWEEN_POSITIONS && game.generateMoves(moves) > 0; ply++) {
+                game.makeMove(engine.search(game, 1000, 4).getMove());
+            }
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,173 @@
+package backend.engine;
+
+import backend.logic.Game;
+import backend.logic.PositionIndex;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact values of all endgames with three to maxStones stones per side and no stones left to place,
+ * computed by TablebaseGenerator. A player with three stones is assumed to jump, as Game lets a player jump
+ * after being reduced to three stones. The value of a position is given from the view of the player to move:
+ * d + 1 if the player wins after d moves (of both players), -(d + 1) if the player loses after d moves
+ * and 0 for a draw. Every value takes one byte, so the tables can be memory-mapped from a file.
+ * Only one position of every symmetry class is stored (see PositionIndex).
+ */
+public class Tablebase {
+    public static final int MIN_STONES = 3;
+    public static final int MAX_STONES = 4;
+
+    /**
+     * Returned by probe for positions, which are not part of the tablebase
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x4D544232;
+    private static final int HEADER_BYTES = 8;
+
+    private final int maxStones;
+    private final PositionIndex[][] indices;
+    private final long[][] offsets;
+    private final ByteBuffer values;
+
+    Tablebase(int maxStones, PositionIndex[][] indices, ByteBuffer values) {
+        this.maxStones = maxStones;
+        this.indices = indices;
+        this.offsets = getOffsets(indices);
+        this.values = values;
+    }
+
+    /**
+     * Indexes the classes of all numbers of stones per side, [white stones][black stones].
+     */
+    static PositionIndex[][] createIndices(int maxStones) {
+        PositionIndex[][] indices = new PositionIndex[maxStones + 1][maxStones + 1];
+        for (int white = MIN_STONES; white <= maxStones; white++) {
+            for (int black = MIN_STONES; black <= maxStones; black++) {
+                indices[white][black] = new PositionIndex(white, black, true);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * The classes are stored ordered by the number of white stones, then of black stones.
+     */
+    static long[][] getOffsets(PositionIndex[][] indices) {
+        long[][] offsets = new long[indices.length][indices.length];
+        long offset = 0;
+        for (int white = MIN_STONES; white < indices.length; white++) {
+            for (int black = MIN_STONES; black < indices.length; black++) {
+                offsets[white][black] = offset;
+                offset += indices[white][black].size();
+            }
+        }
+        return offsets;
+    }
+
+    static long getSize(PositionIndex[][] indices) {
+        int last = indices.length - 1;
+        return getOffsets(indices)[last][last] + indices[last][last].size();
+    }
+
+    /**
+     * Maps a tablebase file written by write into memory.
+     * @throws IOException Should the file not be readable or not be a tablebase
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException(path + " is not a tablebase");
+
+            int maxStones = header.getInt();
+            if (maxStones < MIN_STONES || maxStones > MAX_STONES) throw new IOException(path + " is not a tablebase");
+
+            PositionIndex[][] indices = createIndices(maxStones);
+            long size = getSize(indices);
+            if (channel.size() != HEADER_BYTES + size) throw new IOException(path + " is not a tablebase");
+
+            return new Tablebase(maxStones, indices, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size));
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(maxStones);
+            out.write(header.array());
+
+            byte[] buffer = new byte[1 << 16];
+            ByteBuffer source = values.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                int length = Math.min(buffer.length, source.remaining());
+                source.get(buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        }
+    }
+
+    public int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * Looks up the value of the position of the given game for the player to move. Only positions in the
+     * move phase without a pending removal, with the number of stones covered and jumping players
+     * with exactly three stones are known.
+     * @return the value (see Tablebase) or UNKNOWN
+     */
+    public int probe(Game game) {
+        if (game.getPhase() != GamePhase.MOVE_PHASE || game.isThereAMill()) return UNKNOWN;
+        if (game.getStonesInInventory(GameInterface.COLOUR_WHITE) != 0 || game.getStonesInInventory(GameInterface.COLOUR_BLACK) != 0)
+            return UNKNOWN;
+
+        int white = game.getStones(GameInterface.COLOUR_WHITE);
+        int black = game.getStones(GameInterface.COLOUR_BLACK);
+        if (game.isInJumpPhase(GameInterface.COLOUR_WHITE) != (Integer.bitCount(white) == MIN_STONES)
+                || game.isInJumpPhase(GameInterface.COLOUR_BLACK) != (Integer.bitCount(black) == MIN_STONES)) {
+            return UNKNOWN;
+        }
+        return probe(white, black, game.getCurrentPlayer());
+    }
+
+    /**
+     * @return the value (see Tablebase) of the given stones for the given player to move or UNKNOWN
+     */
+    public int probe(int whiteStones, int blackStones, boolean colourToMove) {
+        int whiteCount = Integer.bitCount(whiteStones);
+        int blackCount = Integer.bitCount(blackStones);
+        if (whiteCount < MIN_STONES || blackCount < MIN_STONES || whiteCount > maxStones || blackCount > maxStones)
+            return UNKNOWN;
+
+        long index = indices[whiteCount][blackCount].indexOf(whiteStones, blackStones, colourToMove);
+        if (index < 0) return UNKNOWN;
+
+        return values.get((int) (offsets[whiteCount][blackCount] + index));
+    }
+
+    public static boolean isWin(int value) {
+        return value > 0 && value != UNKNOWN;
+    }
+
+    public static boolean isLoss(int value) {
+        return value < 0 && value != UNKNOWN;
+    }
+
+    /**
+     * @return the number of moves until the game is won or lost
+     */
+    public static int getDistance(int value) {
+        return Math.abs(value) - 1;
+    }
+}
@@ -0,0 +1,231 @@
+package backend.engine;
+
+import backend.logic.PositionIndex;
+import backend.logic.Symmetry;
+import backend.logic.Topology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Computes a Tablebase by retrograde analysis. The classes (number of stones per side) are solved with the
+ * least stones first, so a capture always leads into a solved class. Within a class, every position counts
+ * its moves, which stay in the class. Starting with the positions decided by captures and blocked players,
+ * the positions are resolved distance by distance: a position is won once one of its moves leads to a lost
+ * position and lost once all of its moves lead to won ones. Positions never resolved are draws.
+ * Only one position per symmetry class is solved, so a move counts as many times as there are positions
+ * in the class of the position it starts from and is taken back as many times as there are positions
+ * in the class of the position it leads to. Both sums are the number of moves between the two classes.
+ * Usage: TablebaseGenerator [max stones] [file]
+ */
+public class TablebaseGenerator {
+    // added to the number of moves left, if the position cannot be lost anymore
+    private static final int CANNOT_LOSE = 1 << 14;
+
+    private static final int MAX_DISTANCE = Byte.MAX_VALUE - 2;
+
+    private final PositionIndex[][] indices;
+    private final long[][] offsets;
+    private final byte[] values;
+
+    // per position of the class being solved
+    private short[] movesLeft;
+    private byte[] longestWin;
+    private byte[] pending;
+
+    private TablebaseGenerator(int maxStones) {
+        indices = Tablebase.createIndices(maxStones);
+        offsets = Tablebase.getOffsets(indices);
+        values = new byte[(int) Tablebase.getSize(indices)];
+    }
+
+    public static void main(String[] args) throws IOException {
+        int maxStones = args.length > 0 ? Integer.parseInt(args[0]) : Tablebase.MIN_STONES;
+        Path path = Path.of(args.length > 1 ? args[1] : "tablebase-" + maxStones + ".bin");
+
+        long start = System.nanoTime();
+        generate(maxStones).write(path);
+        System.out.printf("Wrote %s in %.1f s%n", path, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * @param maxStones The maximum number of stones per side, from Tablebase.MIN_STONES to Tablebase.MAX_STONES
+     */
+    public static Tablebase generate(int maxStones) {
+        if (maxStones < Tablebase.MIN_STONES || maxStones > Tablebase.MAX_STONES)
+            throw new IllegalArgumentException("Tablebases cover " + Tablebase.MIN_STONES + " to " + Tablebase.MAX_STONES + " stones per side");
+
+        TablebaseGenerator generator = new TablebaseGenerator(maxStones);
+        for (int total = 2 * Tablebase.MIN_STONES; total <= 2 * maxStones; total++) {
+            for (int white = Tablebase.MIN_STONES; white <= maxStones; white++) {
+                int black = total - white;
+                if (black >= Tablebase.MIN_STONES && black <= maxStones) generator.solveClass(white, black);
+            }
+        }
+        return new Tablebase(maxStones, generator.indices, ByteBuffer.wrap(generator.values));
+    }
+
+    private void solveClass(int whiteCount, int blackCount) {
+        PositionIndex positions = indices[whiteCount][blackCount];
+        int size = (int) positions.size();
+        int offset = (int) offsets[whiteCount][blackCount];
+        movesLeft = new short[size];
+        longestWin = new byte[size];
+        pending = new byte[size];
+
+        int maxPending = 0;
+        for (int index = 0; index < size; index++) {
+            int white = positions.getWhiteStones(index);
+            int black = positions.getBlackStones(index);
+            maxPending = Math.max(maxPending, initialize(index, white, black, positions.getColourToMove(index)));
+        }
+
+        for (int distance = 0; distance < maxPending; distance++) {
+            for (int index = 0; index < size; index++) {
+                if (pending[index] != distance + 1 || values[offset + index] != 0) continue;
+
+                boolean win = distance % 2 == 1;
+                values[offset + index] = (byte) (win ? distance + 1 : -(distance + 1));
+                maxPending = Math.max(maxPending, resolvePredecessors(positions, index, offset, distance, win));
+            }
+        }
+
+        movesLeft = null;
+        longestWin = null;
+        pending = null;
+    }
+
+    /**
+     * Counts the moves of a position, which stay in its class, and scores the captures.
+     * @return the distance + 1, at which the position is decided, or 0 if that is not known yet
+     */
+    private int initialize(int index, int white, int black, boolean whiteToMove) {
+        int own = whiteToMove ? white : black;
+        int other = whiteToMove ? black : white;
+        int empty = Topology.ALL_FIELDS & ~(white | black);
+        boolean jumping = Integer.bitCount(own) == Tablebase.MIN_STONES;
+
+        int moves = 0;
+        int captures = 0;
+        int shortestWin = Integer.MAX_VALUE;
+        int longest = 0;
+        boolean cannotLose = false;
+
+        for (int stones = own; stones != 0; stones &= stones - 1) {
+            int from = Integer.numberOfTrailingZeros(stones);
+            int targets = jumping ? empty : Topology.getAdjacentMask(from) & empty;
+
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                int moved = own & ~(1 << from) | 1 << to;
+                if (!closesMill(moved, to)) {
+                    moves++;
+                    continue;
+                }
+
+                for (int removable = getRemovableStones(other); removable != 0; removable &= removable - 1) {
+                    captures++;
+                    int left = other & ~Integer.lowestOneBit(removable);
+                    if (Integer.bitCount(left) < Tablebase.MIN_STONES) {
+                        shortestWin = 1;
+                        continue;
+                    }
+
+                    // the value of the position after the capture, for the other player
+                    int value = whiteToMove ? probe(moved, left, false) : probe(left, moved, true);
+                    if (value < 0) shortestWin = Math.min(shortestWin, Tablebase.getDistance(value) + 1);
+                    else if (value > 0) longest = Math.max(longest, Tablebase.getDistance(value));
+                    else cannotLose = true;
+                }
+            }
+        }
+
+        cannotLose |= shortestWin != Integer.MAX_VALUE;
+        movesLeft[index] = (short) (moves * Symmetry.getOrbitSize(white, black) + (cannotLose ? CANNOT_LOSE : 0));
+        longestWin[index] = (byte) longest;
+
+        if (shortestWin != Integer.MAX_VALUE) return setPending(index, shortestWin);
+        // blocked players lose at once, otherwise all captures lead to lost positions
+        if (moves == 0 && !cannotLose) return setPending(index, captures == 0 ? 0 : longest + 1);
+        return 0;
+    }
+
+    /**
+     * Passes the value of a resolved position on to all positions of the class, which lead to it.
+     * @return the largest distance + 1 a predecessor is pending at, 0 if there is none
+     */
+    private int resolvePredecessors(PositionIndex positions, int index, int offset, int distance, boolean win) {
+        int white = positions.getWhiteStones(index);
+        int black = positions.getBlackStones(index);
+        boolean whiteToMove = positions.getColourToMove(index);
+        int orbitSize = Symmetry.getOrbitSize(white, black);
+
+        // the player, who made the last move
+        int last = whiteToMove ? black : white;
+        int empty = Topology.ALL_FIELDS & ~(white | black);
+        boolean jumping = Integer.bitCount(last) == Tablebase.MIN_STONES;
+        int maxPending = 0;
+
+        for (int stones = last; stones != 0; stones &= stones - 1) {
+            int to = Integer.numberOfTrailingZeros(stones);
+            // a move, which closed a mill, would have been followed by a capture
+            if (closesMill(last, to)) continue;
+
+            int sources = jumping ? empty : Topology.getAdjacentMask(to) & empty;
+            for (; sources != 0; sources &= sources - 1) {
+                int before = last & ~(1 << to) | Integer.lowestOneBit(sources);
+                int predecessor = (int) (whiteToMove
+                        ? positions.indexOf(white, before, !whiteToMove)
+                        : positions.indexOf(before, black, !whiteToMove));
+                if (values[offset + predecessor] != 0) continue;
+
+                if (!win) {
+                    if (pending[predecessor] == 0 || pending[predecessor] > distance + 2) {
+                        maxPending = Math.max(maxPending, setPending(predecessor, distance + 1));
+                    }
+                } else {
+                    longestWin[predecessor] = (byte) Math.max(longestWin[predecessor], distance);
+                    movesLeft[predecessor] -= orbitSize;
+                    if (movesLeft[predecessor] == 0) {
+                        maxPending = Math.max(maxPending, setPending(predecessor, longestWin[predecessor] + 1));
+                    }
+                }
+            }
+        }
+        return maxPending;
+    }
+
+    private int setPending(int index, int distance) {
+        if (distance > MAX_DISTANCE) throw new IllegalStateException("The distance of a position exceeds " + MAX_DISTANCE);
+
+        pending[index] = (byte) (distance + 1);
+        return distance + 1;
+    }
+
+    private int probe(int white, int black, boolean colourToMove) {
+        int whiteCount = Integer.bitCount(white);
+        int blackCount = Integer.bitCount(black);
+        return values[(int) (offsets[whiteCount][blackCount] + indices[whiteCount][blackCount].indexOf(white, black, colourToMove))];
+    }
+
+    private static boolean closesMill(int stones, int index) {
+        for (int n = 0; n < Topology.MILLS_PER_FIELD; n++) {
+            int mill = Topology.getMillOfField(index, n);
+            if ((stones & mill) == mill) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Same rule as Game: stones, which are not part of a mill, or any stone if all of them are.
+     */
+    private static int getRemovableStones(int stones) {
+        int inMills = 0;
+        for (int m = 0; m < Topology.MILL_COUNT; m++) {
+            int mill = Topology.getMill(m);
+            if ((stones & mill) == mill) inMills |= mill;
+        }
+        return (stones & ~inMills) != 0 ? stones & ~inMills : stones;
+    }
+}
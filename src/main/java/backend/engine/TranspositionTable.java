@@ -0,0 +1,134 @@
+package backend.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size hash table of search results, keyed by Game.getPositionKey, which may be shared by any number
+ * of engines without locking. Every entry takes two longs in a single array: the key XOR the data and the data,
+ * so an entry torn by concurrent writes does not verify and is treated as missing.
+ * The entries are grouped into buckets of four (one cache line). A new result replaces the entry of the same
+ * position, otherwise the entry with the least depth, where entries of older searches count as shallower.
+ */
+public class TranspositionTable {
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_BYTES = 16;
+
+    // layout of the data: move (15 bits), depth (7 bits), bound (2 bits), generation (8 bits), score (32 bits)
+    private static final int DEPTH_SHIFT = 15;
+    private static final int BOUND_SHIFT = 22;
+    private static final int GENERATION_SHIFT = 24;
+    private static final int SCORE_SHIFT = 32;
+
+    // depth an entry loses for every search it is older than the current one
+    private static final int AGE_PENALTY = 8;
+
+    private final long[] entries;
+    private final long bucketMask;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param megabytes The size of the table, rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("The table needs at least one megabyte");
+
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (BUCKET_SIZE * ENTRY_BYTES));
+        entries = new long[(int) (buckets * BUCKET_SIZE * 2)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Starts a new search, so the entries of earlier searches are replaced first.
+     */
+    public void newSearch() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return the data stored for the given key (decoded by the static getters), 0 if there is none
+     */
+    public long probe(long key) {
+        int bucket = getBucket(key);
+        for (int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2) {
+            long data = entries[i + 1];
+            if ((entries[i] ^ data) == key && data != 0) return data;
+        }
+        return 0;
+    }
+
+    /**
+     * @param move The best move found, Move.NONE if there is none
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int currentGeneration = generation.get() & 0xFF;
+        int bucket = getBucket(key);
+        int victim = bucket;
+        int victimValue = Integer.MAX_VALUE;
+
+        for (int i = bucket; i < bucket + 2 * BUCKET_SIZE; i += 2) {
+            long data = entries[i + 1];
+            if ((entries[i] ^ data) == key || data == 0) {
+                victim = i;
+                break;
+            }
+
+            int age = (currentGeneration - getGeneration(data)) & 0xFF;
+            int value = getDepth(data) - AGE_PENALTY * age;
+            if (value < victimValue) {
+                victim = i;
+                victimValue = value;
+            }
+        }
+
+        long data = (move & 0x7FFFL)
+                | (long) depth << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) currentGeneration << GENERATION_SHIFT
+                | (long) score << SCORE_SHIFT;
+        entries[victim] = key ^ data;
+        entries[victim + 1] = data;
+    }
+
+    /**
+     * Forgets all entries. Must not be called while the table is in use.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    private int getBucket(long key) {
+        return (int) (key & bucketMask) * BUCKET_SIZE * 2;
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & 0x7FFF);
+    }
+
+    public static int getDepth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0x7F;
+    }
+
+    public static int getBound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getGeneration(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    public static int getScore(long data) {
+        return (int) (data >>> SCORE_SHIFT);
+    }
+}
@@ -0,0 +1,215 @@
+package backend.handlers;
+
+import backend.Server;
+import backend.engine.EngineScheduler;
+import backend.engine.Policy;
+import backend.helpers.Match;
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Topology;
+import interfaces.GameEvent;
+import interfaces.GameEventMethod;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A server-side opponent for players, who waited too long in the quick match queue (see Server).
+ * It has no connection: the events of its match are emitted to it directly, and the moves chosen by its
+ * Policy are handed to eventHandler like the events of a client, so they are validated by the Game and
+ * broadcast through the Match the same way. The moves are searched as BOT tasks of an EngineScheduler,
+ * not on the thread of the human player.
+ * The client identifies stones by the reference of their sprite (white 0 - 8, black 9 - 17), so the bot
+ * keeps track of the sprite on every field.
+ */
+public class BotWorker extends ServerWorker {
+    private static final int NO_STONE = -1;
+    // the time after which the player waits for the bot longer than for a human
+    private static final long MOVE_DEADLINE_MILLIS = 5_000;
+    private static final long RETRY_MILLIS = 100;
+
+    private final Policy policy;
+    private final EngineScheduler scheduler;
+    private final long moveMillis;
+    private final SplittableRandom random;
+
+    // the sprite reference of the stone on every field and the number of stones the bot has placed,
+    // counted from the broadcast placements, guarded by this
+    private final int[] references = new int[Topology.FIELD_COUNT];
+    private int placedStones;
+
+    private final AtomicBoolean thinking = new AtomicBoolean(false);
+
+    /**
+     * @param moveMillis The time slice of a move
+     */
+    public BotWorker(Server server, Policy policy, EngineScheduler scheduler, long moveMillis, long seed) {
+        super(server);
+        this.policy = policy;
+        this.scheduler = scheduler;
+        this.moveMillis = moveMillis;
+        this.random = new SplittableRandom(seed);
+        Arrays.fill(references, NO_STONE);
+    }
+
+    @Override
+    public void run() {
+        // there is no connection to read events from
+    }
+
+    @Override
+    public synchronized void emit(GameEvent event) {
+        Object[] arguments = event.getArguments();
+
+        switch (event.getMethod()) {
+            case GameStart -> {
+                Arrays.fill(references, NO_STONE);
+                placedStones = 0;
+            }
+            case PlaceStone -> {
+                references[getField(arguments, 0)] = event.getReference();
+                // only placements, which have been accepted, are broadcast
+                if ((event.getReference() >= 9) == (getColour() == GameInterface.COLOUR_BLACK)) placedStones++;
+            }
+            case MoveStone -> {
+                int from = getField(arguments, 0);
+                references[getField(arguments, 2)] = references[from];
+                references[from] = NO_STONE;
+            }
+            case RemoveStone -> references[getField(arguments, 0)] = NO_STONE;
+            // nothing to answer
+            default -> {
+                return;
+            }
+        }
+
+        scheduleMove();
+    }
+
+    private static int getField(Object[] arguments, int offset) {
+        return Topology.indexOf((Integer) arguments[offset], (Integer) arguments[offset + 1]);
+    }
+
+    /**
+     * Searches a move with the scheduler, should it be the turn of the bot and no search be running.
+     */
+    private void scheduleMove() {
+        Match match = getMatch();
+        if (match == null) return;
+
+        Game game = match.getGame();
+        if (game.getPhase() == GamePhase.GAME_OVER || game.getActingPlayer() != getColour()) return;
+
+        if (thinking.compareAndSet(false, true)) {
+            try {
+                scheduler.submit(EngineScheduler.Priority.BOT, moveMillis, MOVE_DEADLINE_MILLIS, millis -> {
+                    play(millis);
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                // the scheduler is overloaded: try again later, never while the last event is being broadcast
+                thinking.set(false);
+                CompletableFuture.delayedExecutor(RETRY_MILLIS, TimeUnit.MILLISECONDS).execute(this::scheduleMove);
+            }
+        }
+    }
+
+    private void play(long millis) {
+        boolean moved = false;
+        try {
+            Match match = getMatch();
+            if (match == null) return;
+
+            // the policy may make moves on the game, so it gets a copy
+            Game game = match.getGame().copy();
+            if (game.getPhase() == GamePhase.GAME_OVER || game.getActingPlayer() != getColour()) return;
+            long keyBefore = game.getPositionKey();
+
+            int move = policy.chooseMove(game, random, millis);
+            if (move == Move.NONE) return;
+
+            makeMove(move);
+            // a rejected move changes nothing, so it is not tried again
+            moved = match.getGame().getPositionKey() != keyBefore;
+        } finally {
+            thinking.set(false);
+        }
+
+        // the opponent may have answered before the flag was cleared
+        if (moved) scheduleMove();
+    }
+
+    /**
+     * Sends the parts of the given move as the events a client would send.
+     */
+    private void makeMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int removed = Move.getRemoved(move);
+
+        if (to != Move.NONE) {
+            if (from == Move.NONE) {
+                eventHandler(new GameEvent(
+                        GameEventMethod.PlaceStone,
+                        getNextReference(),
+                        null,
+                        Topology.getPosX(to),
+                        Topology.getPosY(to)
+                ));
+            } else {
+                eventHandler(new GameEvent(
+                        GameEventMethod.MoveStone,
+                        getReference(from),
+                        null,
+                        Topology.getPosX(from),
+                        Topology.getPosY(from),
+                        Topology.getPosX(to),
+                        Topology.getPosY(to)
+                ));
+            }
+        }
+
+        if (removed != Move.NONE && getMatch() != null) {
+            eventHandler(new GameEvent(
+                    GameEventMethod.RemoveStone,
+                    getReference(removed),
+                    null,
+                    Topology.getPosX(removed),
+                    Topology.getPosY(removed)
+            ));
+        }
+    }
+
+    private synchronized int getReference(int field) {
+        return references[field];
+    }
+
+    /**
+     * @return the reference of the sprite for the next stone placed by the bot
+     */
+    private synchronized int getNextReference() {
+        return (getColour() == GameInterface.COLOUR_WHITE ? 0 : 9) + placedStones;
+    }
+
+    @Override
+    public void returnToLobby() {
+        // a bot only plays the one match it has been created for
+        setMatch(null);
+    }
+
+    @Override
+    public void addToPool() {
+        // bots cannot be invited
+    }
+
+    @Override
+    public String toString() {
+        return "Bot[" + policy.getClass().getSimpleName() + "]";
+    }
+}
@@ -2,8 +2,11 @@ package backend.handlers;
 
 import backend.Server;
 import backend.helpers.Match;
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.MoveResult;
+import backend.logic.Topology;
 import interfaces.User;
-import backend.logic.Stone;
 import interfaces.*;
 
 import java.io.*;
@@ -17,6 +20,8 @@ public class ServerWorker extends Thread {
     private final ObjectOutputStream objectOutputStream;
 
     private Match match;
+    // the match played last, so the analysis of its game can be fetched
+    private Match lastMatch;
     private boolean myColour;
     private User user;
 
@@ -30,22 +35,32 @@ public class ServerWorker extends Thread {
         objectInputStream = new ObjectInputStream(socket.getInputStream());
     }
 
+    /**
+     * Creates a worker without a connection, e.g. for a bot, which has to override emit and run.
+     */
+    protected ServerWorker(Server server) {
+        this.server = server;
+        this.socket = null;
+        objectOutputStream = null;
+        objectInputStream = null;
+    }
+
     @Override
     public void run() {
         inputHandler();
     }
 
+    /**
+     * Sets the colour of the player in the match. The match tells the player with a GameStart event.
+     */
     public void setColour(boolean colour) {
-        emit(new GameEvent(
-                GameEventMethod.GameStart,
-                -1,
-                match.getGame().getStatus(),
-                colour,
-                match.getGame().getCurrentPlayer()
-        ));
         myColour = colour;
     }
 
+    public boolean getColour() {
+        return myColour;
+    }
+
     public void setUser(User user) {
         this.user = user;
     }
@@ -56,6 +71,11 @@ public class ServerWorker extends Thread {
 
     public void setMatch(Match match) {
         this.match = match;
+        if (match != null) lastMatch = match;
+    }
+
+    public Match getMatch() {
+        return match;
     }
 
     public boolean isInMatch() { return this.match != null; }
@@ -65,9 +85,12 @@ public class ServerWorker extends Thread {
         System.out.println("[ServerWorker] emit: " + event);
 
         try {
-            objectOutputStream.writeObject(event);
-            // this next statement cost me 3h to find / by @HerrMotz
-            objectOutputStream.reset();
+            // bots emit from their own threads, so events may be written concurrently
+            synchronized (objectOutputStream) {
+                objectOutputStream.writeObject(event);
+                // this next statement cost me 3h to find / by @HerrMotz
+                objectOutputStream.reset();
+            }
         } catch (IOException e) {
             e.printStackTrace();
             System.out.println("From Emit");
@@ -89,7 +112,10 @@ public class ServerWorker extends Thread {
         disconnectHandler();
     }
 
-    private void eventHandler(GameEvent event) {
+    /**
+     * Handles an event sent by the client (or made up by a bot) as the player of this worker.
+     */
+    protected void eventHandler(GameEvent event) {
         Object[] arguments = event.getArguments();
 
         int reference = event.getReference();
@@ -170,81 +196,39 @@ public class ServerWorker extends Thread {
                                 (Boolean) arguments[1]
                         );
 
-                case PlaceStone -> {
-                    match.getGame().placeStoneCheckTurn(
-                            myColour,
-                            (Integer) arguments[0],
-                            (Integer) arguments[1],
-                            new Stone(myColour)
+                case PlaceStone, RemoveStone, MoveStone -> {
+                    // the other player may end the match and send this player to the lobby meanwhile
+                    Match match = this.match;
+                    MoveResult result = match.play(
+                            this,
+                            new GameEvent(event.getMethod(), reference, null, arguments)
                     );
 
-                    match.broadcast(new GameEvent(
-                            GameEventMethod.PlaceStone,
-                            reference,
-                            match.getGame().getStatus(),
-                            arguments[0],
-                            arguments[1]
-                    ));
+                    if (!result.isLegal()) {
+                        rejectMove(match, event.getMethod(), reference, result);
+                    }
+                    if (match.getGame().getPhase() == GamePhase.GAME_OVER) {
+                        match.endGame();
+                    }
                 }
-                case RemoveStone -> {
-                    match.getGame().removeStoneCheckTurn(
-                            myColour,
-                            (Integer) arguments[0],
-                            (Integer) arguments[1]
-                    );
 
-                    match.broadcast(new GameEvent(
-                            GameEventMethod.RemoveStone,
-                            reference,
-                            match.getGame().getStatus(),
-                            arguments[0],
-                            arguments[1]
-                    ));
+                case Hint -> requestHint();
 
-                    if (match.getGame().getPhase() == GamePhase.GAME_OVER) {
-                        match.broadcast(new GameEvent(
-                                GameEventMethod.GameOver,
+                case Analysis -> {
+                    if (lastMatch == null) {
+                        // no arguments: the player has not played a match yet
+                        emit(new GameEvent(GameEventMethod.Analysis, -1, null));
+                    } else {
+                        emit(new GameEvent(
+                                GameEventMethod.Analysis,
                                 -1,
-                                match.getGame().getStatus()
+                                null,
+                                // null while the game is running or being analyzed
+                                server.getAnalysisService().getResult(lastMatch.getId())
                         ));
-
-                        match.endGame();
                     }
                 }
-                case MoveStone -> {
-                    match.getGame().moveStoneCheckTurn(
-                            myColour,
-                            (Integer) arguments[0],
-                            (Integer) arguments[1],
-                            (Integer) arguments[2],
-                            (Integer) arguments[3]
-                    );
-
-                    match.broadcast(new GameEvent(
-                            GameEventMethod.MoveStone,
-                            reference,
-                            match.getGame().getStatus(),
-                            arguments[0],
-                            arguments[1],
-                            arguments[2],
-                            arguments[3]
-                    ));
-                }
-            }
-        } catch (IllegalMoveException e) {
-            e.printStackTrace();
-
-            if (event.getMethod() == GameEventMethod.RemoveStone) {
-                // The stone should not be put back to the drag start point
-                reference = -1;
             }
-
-            emit(new GameEvent(
-                    GameEventMethod.IllegalMove,
-                    reference,
-                    match.getGame().getStatus(),
-                    e.getMessage()
-            ));
         } catch (NullPointerException e) {
             e.printStackTrace();
             emit(new GameEvent(
@@ -264,6 +248,65 @@ public class ServerWorker extends Thread {
         }
     }
 
+    private void rejectMove(Match match, GameEventMethod method, int reference, MoveResult result) {
+        if (method == GameEventMethod.RemoveStone) {
+            // The stone should not be put back to the drag start point
+            reference = -1;
+        }
+
+        emit(new GameEvent(
+                GameEventMethod.IllegalMove,
+                reference,
+                match.getGame().getStatus(),
+                result.getMessage()
+        ));
+    }
+
+    /**
+     * Searches a move for the player and emits it once found, as its notation and the coordinates
+     * of the moved (from, to) and the removed stone, -1 where there is none.
+     */
+    private void requestHint() {
+        Game game = match.getGame();
+        if (game.getPhase() == GamePhase.GAME_OVER || game.getActingPlayer() != myColour) {
+            emit(new GameEvent(
+                    GameEventMethod.IllegalMove,
+                    -1,
+                    game.getStatus(),
+                    "You can only get a hint when it's your turn."
+            ));
+            return;
+        }
+
+        server.getHintProvider().getHint(game).whenComplete((move, error) -> {
+            if (error != null || move == Move.NONE) {
+                emit(new GameEvent(
+                        GameEventMethod.IllegalMove,
+                        -1,
+                        null,
+                        "There is no hint available right now."
+                ));
+                return;
+            }
+
+            int from = Move.getFrom(move);
+            int to = Move.getTo(move);
+            int removed = Move.getRemoved(move);
+            emit(new GameEvent(
+                    GameEventMethod.Hint,
+                    -1,
+                    null,
+                    Move.toString(move),
+                    from == Move.NONE ? -1 : Topology.getPosX(from),
+                    from == Move.NONE ? -1 : Topology.getPosY(from),
+                    to == Move.NONE ? -1 : Topology.getPosX(to),
+                    to == Move.NONE ? -1 : Topology.getPosY(to),
+                    removed == Move.NONE ? -1 : Topology.getPosX(removed),
+                    removed == Move.NONE ? -1 : Topology.getPosY(removed)
+            ));
+        });
+    }
+
     public void returnToLobby() {
         setMatch(null);
         server.broadcastPlayerPool();
@@ -1,51 +1,191 @@
 package backend.helpers;
 
+import backend.engine.AnalysisService;
 import backend.handlers.ServerWorker;
 import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.MoveResult;
+import backend.logic.Topology;
 import interfaces.GameEvent;
 import interfaces.GameEventMethod;
+import interfaces.GamePhase;
 import interfaces.IllegalMoveException;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class Match {
     public static final double x = .5;
 
+    private static final AtomicLong nextId = new AtomicLong(0);
+
+    private final long id = nextId.incrementAndGet();
     private final ServerWorker serverWorker1;
     private final ServerWorker serverWorker2;
     private final Game game;
+    private final boolean startingPlayer;
+
+    // the moves broadcast so far, moves closing a mill with their removal (see Move), guarded by this
+    private final List<Integer> moves = new ArrayList<>();
+    private final AnalysisService analysisService;
+    private boolean gameOver = false;
+    private boolean ended = false;
 
     public Match(ServerWorker serverWorker1, ServerWorker serverWorker2) throws IllegalMoveException {
+        this(serverWorker1, serverWorker2, null);
+    }
+
+    /**
+     * @param analysisService Analyzes the game once it is over, may be null
+     */
+    public Match(ServerWorker serverWorker1, ServerWorker serverWorker2, AnalysisService analysisService) throws IllegalMoveException {
         this.serverWorker1 = serverWorker1;
         this.serverWorker2 = serverWorker2;
+        this.analysisService = analysisService;
+
+        // instantiate game and determine start player, before the workers can see the match
+        this.game = new Game(true, x);
+        this.startingPlayer = game.getCurrentPlayer();
 
         this.serverWorker1.setMatch(this);
         this.serverWorker2.setMatch(this);
 
-        // instantiate game and determine start player
-        this.game = new Game(true, x);
-
         // determine which player gets which colour
         boolean colour1 = (Math.random() < x);
         this.serverWorker1.setColour(colour1);
         this.serverWorker2.setColour(!colour1);
 
+        // both players know their colours, before either is told to start. A bot, which moves first,
+        // has to wait for the lock (see play), until the other player has been told as well.
+        synchronized (this) {
+            emitGameStart(serverWorker1);
+            emitGameStart(serverWorker2);
+        }
+    }
+
+    private void emitGameStart(ServerWorker serverWorker) {
+        serverWorker.emit(new GameEvent(
+                GameEventMethod.GameStart,
+                -1,
+                game.getStatus(),
+                serverWorker.getColour(),
+                game.getCurrentPlayer()
+        ));
     }
 
     public Game getGame() {
         return game;
     }
 
+    /**
+     * @return the id of this match, by which the analysis of its game can be fetched
+     */
+    public long getId() {
+        return id;
+    }
+
+    public boolean getStartingPlayer() {
+        return startingPlayer;
+    }
+
+    /**
+     * @return the moves made so far (see Move for the encoding)
+     */
+    public synchronized int[] getMoves() {
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Sends both players back to the lobby. Only the first call has an effect, so both players may end the match.
+     */
     public void endGame() {
+        synchronized (this) {
+            if (ended) return;
+            ended = true;
+
+            if (analysisService != null && game.getPhase() == GamePhase.GAME_OVER) {
+                analysisService.submit(id, startingPlayer, getMoves());
+            }
+        }
+
         serverWorker1.addToPool();
         serverWorker2.addToPool();
         serverWorker1.returnToLobby();
         serverWorker2.returnToLobby();
     }
 
-    public void broadcast(GameEvent gameEvent) {
+    /**
+     * Makes the move of the given event for the given player and broadcasts it, if it is legal.
+     * Both happen while holding the lock of the match, so every player gets the events and the moves
+     * are recorded in the order they have been made, even if the answer to a move is ready before
+     * the move has been broadcast.
+     * Should the game be over afterwards, the GameOver event is broadcast too.
+     * @param gameEvent A PlaceStone, MoveStone or RemoveStone event with the coordinates as its arguments
+     * @return OK if the move has been made, otherwise the reason why it may not be made
+     */
+    public synchronized MoveResult play(ServerWorker serverWorker, GameEvent gameEvent) {
+        boolean colour = serverWorker.getColour();
+        Object[] arguments = gameEvent.getArguments();
+
+        MoveResult result = switch (gameEvent.getMethod()) {
+            case PlaceStone -> game.tryPlaceStone(colour, (Integer) arguments[0], (Integer) arguments[1]);
+            case RemoveStone -> game.tryRemoveStone(colour, (Integer) arguments[0], (Integer) arguments[1]);
+            case MoveStone -> game.tryMoveStone(
+                    colour,
+                    (Integer) arguments[0],
+                    (Integer) arguments[1],
+                    (Integer) arguments[2],
+                    (Integer) arguments[3]
+            );
+            default -> throw new IllegalArgumentException("Only moves can be played, not " + gameEvent.getMethod());
+        };
+
+        if (result.isLegal()) {
+            broadcast(new GameEvent(gameEvent.getMethod(), gameEvent.getReference(), game.getStatus(), arguments));
+        }
+
+        // the game ends with a move or with the attempt of a blocked player, the players are told once
+        if (game.getPhase() == GamePhase.GAME_OVER && !gameOver) {
+            gameOver = true;
+            broadcast(new GameEvent(
+                    GameEventMethod.GameOver,
+                    -1,
+                    game.getStatus()
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Sends the event to both players, in the same order as the other events (see play).
+     */
+    public synchronized void broadcast(GameEvent gameEvent) {
+        record(gameEvent);
         serverWorker1.emit(gameEvent);
         serverWorker2.emit(gameEvent);
     }
 
+    /**
+     * Adds the move of the given event to the moves of the game. Only legal moves are broadcast.
+     */
+    private void record(GameEvent gameEvent) {
+        Object[] arguments = gameEvent.getArguments();
+        switch (gameEvent.getMethod()) {
+            case PlaceStone -> moves.add(Move.place(getField(arguments, 0)));
+            case MoveStone -> moves.add(Move.move(getField(arguments, 0), getField(arguments, 2)));
+            // the stone is removed by the player, who has just closed a mill
+            case RemoveStone -> {
+                int last = moves.size() - 1;
+                moves.set(last, Move.withRemoval(moves.get(last), getField(arguments, 0)));
+            }
+        }
+    }
+
+    private static int getField(Object[] arguments, int offset) {
+        return Topology.indexOf((Integer) arguments[offset], (Integer) arguments[offset + 1]);
+    }
+
     public void abortGame(ServerWorker disconnectedClient) {
         GameEvent gameAbortedEvent = new GameEvent(
                 GameEventMethod.GameAborted,
@@ -2,13 +2,23 @@ package backend.logic;
 
 import interfaces.StoneInterface;
 
+import java.util.Objects;
+
+/**
+ * A snapshot of one position on the grid and the stone on it at the time it was read.
+ * The grid itself only stores bitboards, so two fields are equal if they describe the same position.
+ */
 public class Field {
-    private StoneInterface stone;
+    private final StoneInterface stone;
     private final int posX;
     private final int posY;
 
     public Field(int posX, int posY) {
-        stone = null;
+        this(posX, posY, null);
+    }
+
+    public Field(int posX, int posY, StoneInterface stone) {
+        this.stone = stone;
         this.posX = posX;
         this.posY = posY;
     }
@@ -17,14 +27,6 @@ public class Field {
         return stone;
     }
 
-    public void setStone(StoneInterface stone) {
-        this.stone = stone;
-    }
-
-    public void removeStone() {
-        this.stone = null;
-    }
-
     public boolean isEmpty() {
         return stone == null;
     }
@@ -37,6 +39,19 @@ public class Field {
         return posY;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Field field = (Field) o;
+        return posX == field.posX && posY == field.posY;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(posX, posY);
+    }
+
     @Override
     public String toString() {
         return "Field{" +
@@ -2,9 +2,29 @@ package backend.logic;
 
 import interfaces.*;
 
-import java.util.HashSet;
+import java.util.Arrays;
 
 public class Game {
+    /**
+     * Upper bound for the number of moves generateMoves may write, so buffers of this size never overflow
+     */
+    public static final int MAX_MOVES = 512;
+
+    /**
+     * The game is drawn after this many plies without placing or removing a stone, 50 moves of each player
+     */
+    public static final int MAX_PLIES_WITHOUT_MILL = 100;
+
+    /**
+     * The game is drawn as soon as a position occurs this often
+     */
+    public static final int REPETITIONS = 3;
+
+    private static final GamePhase[] PHASES = GamePhase.values();
+
+    // number of buckets the positions of the history are counted in, a power of 2
+    private static final int REPETITION_BUCKETS = 256;
+
     private final Grid grid = new Grid();
 
     private GamePhase currentPhase = GamePhase.PLACE_PHASE;
@@ -23,12 +43,166 @@ public class Game {
     private boolean whiteInJumpPhase = false;
     private boolean blackInJumpPhase = false;
 
+    private boolean draw = false;
+
+    // Zobrist key of the current state, updated with every change (see Zobrist)
+    private long positionKey;
+
+    // state before every move made with makeMove, so it can be taken back with unmakeMove
+    private long[] undoStones = new long[64];
+    private long[] undoMills = new long[64];
+    private int[] undoNextToEmpty = new int[64];
+    private int[] undoStates = new int[64];
+    private long[] undoKeys = new long[64];
+    private long[] undoHistory = new long[64];
+    private int undoSize = 0;
+
+    // keys of the positions after every complete move. Positions before the last placement or removal
+    // (from historyStart on) never occur again. The counts per bucket of the keys are an upper bound
+    // of the repetitions, so the history is only searched for positions, which may have been repeated.
+    private long[] historyKeys = new long[64];
+    private int historySize = 0;
+    private int historyStart = 0;
+    private byte[] historyCounts = new byte[REPETITION_BUCKETS];
+
+    // last published state, read without locking the game
+    private volatile GameSnapshot snapshot;
+
     public Game(boolean random, double x) throws IllegalMoveException {
-        grid.generateMills();
         if (random) {
             firstMoveByColour = (Math.random() < x);
             lastMoveByColour = firstMoveByColour;
         }
+        positionKey = computePositionKey();
+        recordPosition(true);
+        publish();
+    }
+
+    private Game(Game game) {
+        grid.restore(
+                game.grid.getStones(GameInterface.COLOUR_WHITE),
+                game.grid.getStones(GameInterface.COLOUR_BLACK),
+                game.grid.getStonesInMills(GameInterface.COLOUR_WHITE),
+                game.grid.getStonesInMills(GameInterface.COLOUR_BLACK),
+                game.grid.getNextToEmpty()
+        );
+        currentPhase = game.currentPhase;
+        firstMoveByColour = game.firstMoveByColour;
+        lastMoveByColour = game.lastMoveByColour;
+        thereIsAMill = game.thereIsAMill;
+        whiteStonesInInventory = game.whiteStonesInInventory;
+        blackStonesInInventory = game.blackStonesInInventory;
+        whiteStonesOnTheGrid = game.whiteStonesOnTheGrid;
+        blackStonesOnTheGrid = game.blackStonesOnTheGrid;
+        whiteInJumpPhase = game.whiteInJumpPhase;
+        blackInJumpPhase = game.blackInJumpPhase;
+        draw = game.draw;
+        positionKey = game.positionKey;
+        snapshot = game.snapshot;
+
+        for (int i = game.historyStart; i < game.historySize; i++) {
+            addToHistory(game.historyKeys[i]);
+        }
+    }
+
+    /**
+     * Creates a new game, which the given player starts, e.g. to replay a recorded game.
+     */
+    public static Game startedBy(boolean colour) {
+        try {
+            // the random start with a certain outcome
+            return new Game(true, colour == GameInterface.COLOUR_WHITE ? 0 : 1);
+        } catch (IllegalMoveException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a game in the move phase with all stones placed, e.g. to set up endgames.
+     * Players with three stones jump. Should the player to move be blocked or have less than three stones,
+     * the game is over.
+     * @param whiteStones The bit mask of the white stones (see Topology for the numbering of the fields)
+     * @param blackStones The bit mask of the black stones, disjoint from the white ones
+     */
+    public static Game inMovePhase(int whiteStones, int blackStones, boolean colourToMove) {
+        if ((whiteStones & blackStones) != 0 || ((whiteStones | blackStones) & ~Topology.ALL_FIELDS) != 0)
+            throw new IllegalArgumentException("The stones have to be on different fields of the grid");
+
+        Game game;
+        try {
+            game = new Game(false, 0);
+        } catch (IllegalMoveException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (int stones = whiteStones; stones != 0; stones &= stones - 1) {
+            game.grid.setStone(Integer.numberOfTrailingZeros(stones), GameInterface.COLOUR_WHITE);
+        }
+        for (int stones = blackStones; stones != 0; stones &= stones - 1) {
+            game.grid.setStone(Integer.numberOfTrailingZeros(stones), GameInterface.COLOUR_BLACK);
+        }
+
+        game.whiteStonesInInventory = 0;
+        game.blackStonesInInventory = 0;
+        game.whiteStonesOnTheGrid = Integer.bitCount(whiteStones);
+        game.blackStonesOnTheGrid = Integer.bitCount(blackStones);
+        game.whiteInJumpPhase = game.whiteStonesOnTheGrid == 3;
+        game.blackInJumpPhase = game.blackStonesOnTheGrid == 3;
+        game.lastMoveByColour = !colourToMove;
+        game.currentPhase = game.whiteStonesOnTheGrid < 3 || game.blackStonesOnTheGrid < 3
+                ? GamePhase.GAME_OVER
+                : GamePhase.MOVE_PHASE;
+        game.endGameIfBlocked();
+
+        game.positionKey = game.computePositionKey();
+        game.recordPosition(true);
+        game.publish();
+        return game;
+    }
+
+    /**
+     * Copies the current state (without the moves made with makeMove, which may be taken back),
+     * so it can be searched without locking this game. The positions, which may still be repeated, are copied too.
+     */
+    public synchronized Game copy() {
+        return new Game(this);
+    }
+
+    /**
+     * Publishes the current state as a new snapshot. Called after every change made through
+     * the public methods, but not by makeMove and unmakeMove.
+     */
+    private void publish() {
+        GameSnapshot previous = snapshot;
+        snapshot = new GameSnapshot(
+                previous == null ? 0 : previous.getVersion() + 1,
+                new GameStatus(
+                        currentPhase,
+                        thereIsAMill,
+                        whiteStonesInInventory,
+                        blackStonesInInventory,
+                        whiteStonesOnTheGrid,
+                        blackStonesOnTheGrid,
+                        whiteInJumpPhase,
+                        blackInJumpPhase,
+                        draw
+                ),
+                grid.getStones(GameInterface.COLOUR_WHITE),
+                grid.getStones(GameInterface.COLOUR_BLACK),
+                !lastMoveByColour,
+                positionKey
+        );
+    }
+
+    /**
+     * @return the bit mask of all stones of the given colour on the grid (see Topology for the numbering of the fields)
+     */
+    public synchronized int getStones(boolean colour) {
+        return grid.getStones(colour);
+    }
+
+    public synchronized int getStonesOnTheGrid(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteStonesOnTheGrid : blackStonesOnTheGrid;
     }
 
     public synchronized Integer getStonesInInventory(boolean colour) {
@@ -39,12 +213,14 @@ public class Game {
 
     private synchronized void takeStoneFromInventory(boolean colour) {
         if (colour == GameInterface.COLOUR_WHITE && whiteStonesInInventory > 0) {
+            positionKey ^= Zobrist.inventory(colour, whiteStonesInInventory) ^ Zobrist.inventory(colour, whiteStonesInInventory - 1);
             whiteStonesInInventory--;
             whiteStonesOnTheGrid++;
             return;
         }
 
         if (colour == GameInterface.COLOUR_BLACK && blackStonesInInventory > 0) {
+            positionKey ^= Zobrist.inventory(colour, blackStonesInInventory) ^ Zobrist.inventory(colour, blackStonesInInventory - 1);
             blackStonesInInventory--;
             blackStonesOnTheGrid++;
         }
@@ -58,38 +234,109 @@ public class Game {
 
     private synchronized  void changeTurns() {
         lastMoveByColour = !lastMoveByColour;
+        positionKey ^= Zobrist.WHITE_MOVED_LAST;
     }
 
-    public synchronized void placeStone(int posX, int posY, StoneInterface stone) throws IllegalMoveException {
-        if (thereIsAMill) {
-            throw new IllegalMoveException("You have to remove a stone "+ this.getCurrentPlayer() +" before you can make another move.");
+    private void setPhase(GamePhase phase) {
+        positionKey ^= Zobrist.phase(currentPhase) ^ Zobrist.phase(phase);
+        currentPhase = phase;
+    }
+
+    private void setThereIsAMill(boolean thereIsAMill) {
+        if (this.thereIsAMill != thereIsAMill) positionKey ^= Zobrist.MILL_PENDING;
+        this.thereIsAMill = thereIsAMill;
+    }
+
+    private void enterJumpPhase(boolean colour) {
+        if (isInJumpPhase(colour)) return;
+
+        positionKey ^= Zobrist.jumpPhase(colour);
+        if (colour == GameInterface.COLOUR_WHITE) whiteInJumpPhase = true;
+        else blackInJumpPhase = true;
+    }
+
+    private static void throwIfIllegal(MoveResult result) throws IllegalMoveException {
+        if (!result.isLegal()) {
+            throw new IllegalMoveException(result.getMessage());
         }
+    }
+
+    public synchronized boolean isInJumpPhase(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteInJumpPhase : blackInJumpPhase;
+    }
 
-        if (currentPhase != GamePhase.PLACE_PHASE) {
-            throw new IllegalMoveException("The game is currently not in the place phase.");
+    /**
+     * @return true if it is the given player's turn to move a stone, but none of the stones can be moved
+     */
+    private boolean isBlocked(boolean colour) {
+        return currentPhase == GamePhase.MOVE_PHASE && !thereIsAMill && colour != lastMoveByColour
+                && !isInJumpPhase(colour) && !grid.hasMovableStones(colour);
+    }
+
+    /**
+     * Ends the game as soon as the player, whose turn it is, cannot move any stone,
+     * so the game never waits for a move which does not exist.
+     */
+    private void endGameIfBlocked() {
+        if (isBlocked(!lastMoveByColour)) {
+            setPhase(GamePhase.GAME_OVER);
         }
+    }
 
-        boolean colour = stone.getColour();
-        checkTurns(colour);
+    /**
+     * Checks whether a stone may be placed, without changing the game.
+     * @param colour The colour of the player, who wants to place a stone
+     * @return OK or the reason why the stone may not be placed
+     */
+    public synchronized MoveResult validatePlaceStone(boolean colour, int posX, int posY) {
+        if (thereIsAMill) return MoveResult.MILL_PENDING;
+        if (currentPhase != GamePhase.PLACE_PHASE) return MoveResult.NOT_PLACE_PHASE;
+        if (colour == lastMoveByColour) return MoveResult.NOT_YOUR_TURN;
+        if (getStonesInInventory(colour) == 0) return MoveResult.NO_STONES_LEFT;
+
+        MoveResult position = Grid.validateFieldPosition(posX, posY);
+        if (!position.isLegal()) return position;
+        if (!grid.isEmpty(Topology.indexOf(posX, posY))) return MoveResult.FIELD_OCCUPIED;
+
+        return MoveResult.OK;
+    }
 
-        if (getStonesInInventory(colour) > 0) {
-            grid.placeStone(posX, posY, stone);
-            takeStoneFromInventory(colour);
-            changeTurns();
+    /**
+     * Places a stone, if it is legal to do so.
+     * @param colour The colour of the player, who wants to place a stone
+     * @return OK if the stone has been placed, otherwise the reason why it may not be placed
+     */
+    public synchronized MoveResult tryPlaceStone(boolean colour, int posX, int posY) {
+        MoveResult result = validatePlaceStone(colour, posX, posY);
+        if (result.isLegal()) {
+            applyPlaceStone(colour, Topology.indexOf(posX, posY));
+            if (!thereIsAMill) recordPosition(true);
+            publish();
+        }
+        return result;
+    }
 
-            if (colour == firstMoveByColour
-                && ((firstMoveByColour == GameInterface.COLOUR_BLACK && blackStonesInInventory == 0)
-                    || (firstMoveByColour == GameInterface.COLOUR_WHITE && whiteStonesInInventory == 0)
-                )) {
-                currentPhase = GamePhase.MOVE_PHASE;
-            }
+    private void applyPlaceStone(boolean colour, int index) {
+        grid.setStone(index, colour);
+        positionKey ^= Zobrist.stone(colour, index);
+        takeStoneFromInventory(colour);
+        changeTurns();
+
+        if (colour == firstMoveByColour
+            && ((firstMoveByColour == GameInterface.COLOUR_BLACK && blackStonesInInventory == 0)
+                || (firstMoveByColour == GameInterface.COLOUR_WHITE && whiteStonesInInventory == 0)
+            )) {
+            setPhase(GamePhase.MOVE_PHASE);
+        }
 
-            if (isInMill(posX, posY)) {
-                thereIsAMill = true;
-            }
-        } else {
-            throw new IllegalMoveException("You do not have any stones left");
+        if (grid.isInMill(index)) {
+            setThereIsAMill(true);
         }
+        endGameIfBlocked();
+    }
+
+    public synchronized void placeStone(int posX, int posY, StoneInterface stone) throws IllegalMoveException {
+        throwIfIllegal(tryPlaceStone(stone.getColour(), posX, posY));
     }
 
     public synchronized void placeStoneCheckTurn(boolean moveByColour, int posX, int posY, StoneInterface stone) throws IllegalMoveException {
@@ -98,120 +345,170 @@ public class Game {
     }
 
     public synchronized boolean doesColorHavePossibleMoves(boolean colour) {
-        for (int y = 0; y < Grid.LIMIT_Y; y++) {
-            for (int x = 0; x < Grid.LIMIT_X; x++) {
-                try {
-                    Field field = grid.getField(x, y);
-                    if (!field.isEmpty() && field.getStone().getColour() == colour) {
-                        HashSet<Field> adjacentFields = grid.getAdjacentFields(x, y);
-                        for (Field adjacentField : adjacentFields) {
-                            if (adjacentField.isEmpty()) {
-                                return true;
-                            }
-                        }
-                    }
-                } catch (IllegalMoveException ignored) {}
-            }
-        }
-        return false;
+        return grid.hasMovableStones(colour);
     }
 
     public synchronized boolean areAllStonesInAMill(boolean colour) {
-        for (int y = 0; y < Grid.LIMIT_Y; y++) {
-            for (int x = 0; x < Grid.LIMIT_X; x++) {
-                try {
-                    Field field = grid.getField(x, y);
-                    if (!field.isEmpty() && field.getStone().getColour() == colour) {
-                        if (!isInMill(field.getPosX(), field.getPosY())) {
-                            return false;
-                        }
-                    }
-                } catch (IllegalMoveException ignored) {}
-            }
-        }
-        return true;
+        return (grid.getStones(colour) & ~grid.getStonesInMills(colour)) == 0;
     }
 
-    public synchronized void moveStone(int posX, int posY, int toPosX, int toPosY) throws IllegalMoveException {
-        if (thereIsAMill) {
-            throw new IllegalMoveException("You have to remove a stone "+ this.getCurrentPlayer() +" before you can make another move.");
-        }
-
-        Field field = grid.getField(posX, posY);
+    /**
+     * @return the number of stones of the given colour, which have an empty adjacent field
+     */
+    public synchronized int getMovableStoneCount(boolean colour) {
+        return Integer.bitCount(grid.getMovableStones(colour));
+    }
 
-        boolean colour = field.getStone().getColour();
+    /**
+     * @return the number of stones of the given colour, which are part of a closed mill
+     */
+    public synchronized int getStonesInMillsCount(boolean colour) {
+        return Integer.bitCount(grid.getStonesInMills(colour));
+    }
 
-        checkTurns(colour);
+    /**
+     * @return the number of stones of the given colour on the grid, which are not part of a closed mill
+     */
+    public synchronized int getStonesOutsideMillsCount(boolean colour) {
+        return Integer.bitCount(grid.getStones(colour) & ~grid.getStonesInMills(colour));
+    }
 
-        if (!doesColorHavePossibleMoves(colour)) {
-            currentPhase = GamePhase.GAME_OVER;
-            return;
+    /**
+     * Checks whether a stone may be moved (or jump, if the player is in the jump phase), without changing the game.
+     * @param colour The colour of the player, who wants to move a stone
+     * @return OK or the reason why the stone may not be moved
+     */
+    public synchronized MoveResult validateMoveStone(boolean colour, int posX, int posY, int toPosX, int toPosY) {
+        if (thereIsAMill) return MoveResult.MILL_PENDING;
+        if (currentPhase == GamePhase.GAME_OVER) return MoveResult.GAME_OVER;
+        if (currentPhase == GamePhase.PLACE_PHASE) return MoveResult.NOT_MOVE_PHASE;
+
+        MoveResult position = Grid.validateFieldPosition(posX, posY);
+        if (!position.isLegal()) return position;
+
+        int index = Topology.indexOf(posX, posY);
+        if (grid.isEmpty(index)) return MoveResult.FIELD_EMPTY;
+        if (colour == lastMoveByColour) return MoveResult.NOT_YOUR_TURN;
+        if (grid.getColour(index) != colour) return MoveResult.NOT_YOUR_STONE;
+
+        boolean jumping = isInJumpPhase(colour);
+        if (!jumping && !grid.hasMovableStones(colour)) return MoveResult.BLOCKED;
+
+        position = Grid.validateFieldPosition(toPosX, toPosY);
+        if (!position.isLegal()) return position;
+
+        int toIndex = Topology.indexOf(toPosX, toPosY);
+        if (jumping) {
+            if (index == toIndex) return MoveResult.SAME_FIELD;
+        } else if ((Topology.getAdjacentMask(index) & (1 << toIndex)) == 0) {
+            return MoveResult.NOT_ADJACENT;
         }
+        if (!grid.isEmpty(toIndex)) return MoveResult.TARGET_OCCUPIED;
 
-        if (whiteInJumpPhase && field.getStone().getColour() == GameInterface.COLOUR_WHITE
-                || blackInJumpPhase && field.getStone().getColour() == GameInterface.COLOUR_BLACK) {
-            grid.jumpStone(posX, posY, toPosX, toPosY);
-            changeTurns();
-
-        } else if (grid.areFieldsAdjacent(posX, posY, toPosX, toPosY)) {
-            grid.moveStoneToAdjacentField(posX, posY, toPosX, toPosY);
-            changeTurns();
+        return MoveResult.OK;
+    }
 
-        } else {
-            throw new IllegalMoveException("The fields are not adjacent to each other.");
+    /**
+     * Moves a stone, if it is legal to do so.
+     * Should none of the player's stones be movable, the game is over and BLOCKED is returned.
+     * @param colour The colour of the player, who wants to move a stone
+     * @return OK if the stone has been moved, otherwise the reason why it may not be moved
+     */
+    public synchronized MoveResult tryMoveStone(boolean colour, int posX, int posY, int toPosX, int toPosY) {
+        MoveResult result = validateMoveStone(colour, posX, posY, toPosX, toPosY);
+        if (result.isLegal()) {
+            applyMoveStone(Topology.indexOf(posX, posY), Topology.indexOf(toPosX, toPosY));
+            if (!thereIsAMill) recordPosition(false);
+            publish();
+        } else if (result == MoveResult.BLOCKED) {
+            setPhase(GamePhase.GAME_OVER);
+            publish();
         }
+        return result;
+    }
+
+    private void applyMoveStone(int index, int toIndex) {
+        boolean colour = grid.getColour(index);
+        grid.clearStone(index);
+        grid.setStone(toIndex, colour);
+        positionKey ^= Zobrist.stone(colour, index) ^ Zobrist.stone(colour, toIndex);
+        changeTurns();
 
-        if (isInMill(toPosX, toPosY)) {
-            thereIsAMill = true;
+        if (grid.isInMill(toIndex)) {
+            setThereIsAMill(true);
         }
+        endGameIfBlocked();
+    }
+
+    public synchronized void moveStone(int posX, int posY, int toPosX, int toPosY) throws IllegalMoveException {
+        int index = Topology.indexOf(posX, posY);
+        boolean colour = index >= 0 && !grid.isEmpty(index) ? grid.getColour(index) : getCurrentPlayer();
+        throwIfIllegal(tryMoveStone(colour, posX, posY, toPosX, toPosY));
     }
 
     public synchronized void moveStoneCheckTurn(boolean moveByColour, int posX, int posY, int toPosX, int toPosY) throws IllegalMoveException {
         checkTurns(moveByColour);
-        moveStone(posX, posY, toPosX, toPosY);
+        throwIfIllegal(tryMoveStone(moveByColour, posX, posY, toPosX, toPosY));
     }
 
-    public synchronized void removeStone(int posX, int posY) throws IllegalMoveException {
-        if (thereIsAMill) {
-            Field field = grid.getField(posX, posY);
-            System.out.println(field.getStone().getColour());
-            if (field.getStone().getColour() == lastMoveByColour) {
-                throw new IllegalMoveException("You may not remove one of your own stones");
-            } else {
-                if (isStoneLegalToRemove(posX, posY)) {
-                    boolean colour = field.getStone().getColour();
-                    grid.removeStone(posX, posY);
-                    thereIsAMill = false;
-
-                    // TODO rewrite this as a method
-                    if (colour == GameInterface.COLOUR_WHITE) {
-                        whiteStonesOnTheGrid--; // wtf
-                        if (whiteStonesInInventory == 0) {
-                            if (whiteStonesOnTheGrid <= 3) {
-                                whiteInJumpPhase = true;
-                            }
-                            if (whiteStonesOnTheGrid < 3) {
-                                currentPhase = GamePhase.GAME_OVER;
-                            }
-                        }
-                    } else {
-                        blackStonesOnTheGrid--;
-                        if (blackStonesInInventory == 0) {
-                            if (blackStonesOnTheGrid <= 3) {
-                                blackInJumpPhase = true;
-                            }
-                            if (blackStonesOnTheGrid < 3) {
-                                currentPhase = GamePhase.GAME_OVER;
-                            }
-                        }
-                    }
-                } else {
-                    throw new IllegalMoveException("This stone may not be removed.");
-                }
+    /**
+     * Checks whether a stone may be removed after a mill has been closed, without changing the game.
+     * @param colour The colour of the player, who closed the mill and wants to remove a stone
+     * @return OK or the reason why the stone may not be removed
+     */
+    public synchronized MoveResult validateRemoveStone(boolean colour, int posX, int posY) {
+        if (!thereIsAMill) return MoveResult.NO_MILL;
+        if (colour != lastMoveByColour) return MoveResult.NOT_YOUR_TURN;
+
+        MoveResult position = Grid.validateFieldPosition(posX, posY);
+        if (!position.isLegal()) return position;
+
+        int index = Topology.indexOf(posX, posY);
+        if (grid.isEmpty(index)) return MoveResult.NOTHING_TO_REMOVE;
+        if (grid.getColour(index) == colour) return MoveResult.OWN_STONE;
+        if (!isStoneLegalToRemove(index)) return MoveResult.STONE_IN_MILL;
+
+        return MoveResult.OK;
+    }
+
+    /**
+     * Removes a stone, if it is legal to do so.
+     * @param colour The colour of the player, who closed the mill and wants to remove a stone
+     * @return OK if the stone has been removed, otherwise the reason why it may not be removed
+     */
+    public synchronized MoveResult tryRemoveStone(boolean colour, int posX, int posY) {
+        MoveResult result = validateRemoveStone(colour, posX, posY);
+        if (result.isLegal()) {
+            applyRemoveStone(Topology.indexOf(posX, posY));
+            recordPosition(true);
+            publish();
+        }
+        return result;
+    }
+
+    private void applyRemoveStone(int index) {
+        boolean colour = grid.getColour(index);
+        grid.clearStone(index);
+        positionKey ^= Zobrist.stone(colour, index);
+        setThereIsAMill(false);
+
+        // the stone leaves the game, it does not go back to the inventory. Once all stones of the player
+        // have been placed, three stones left mean jumping and two mean the game is lost.
+        boolean white = colour == GameInterface.COLOUR_WHITE;
+        int stonesOnTheGrid = white ? --whiteStonesOnTheGrid : --blackStonesOnTheGrid;
+        if ((white ? whiteStonesInInventory : blackStonesInInventory) == 0) {
+            if (stonesOnTheGrid <= 3) {
+                enterJumpPhase(colour);
+            }
+            if (stonesOnTheGrid < 3) {
+                setPhase(GamePhase.GAME_OVER);
             }
-        } else {
-            throw new IllegalMoveException("You may not remove a stone if you do not have a mill");
         }
+        if (currentPhase != GamePhase.GAME_OVER) endGameIfBlocked();
+    }
+
+    public synchronized void removeStone(int posX, int posY) throws IllegalMoveException {
+        throwIfIllegal(tryRemoveStone(lastMoveByColour, posX, posY));
     }
 
     public synchronized void removeStoneCheckTurn(boolean moveByColour, int posX, int posY) throws IllegalMoveException {
@@ -223,60 +520,338 @@ public class Game {
         return !lastMoveByColour;
     }
 
-    public synchronized GamePhase getPhase() {
-        return currentPhase;
+    /**
+     * Gets the player, who has to act next. After a mill has been closed, this is the player
+     * who closed it (and has to remove a stone), otherwise it is the current player.
+     */
+    public synchronized boolean getActingPlayer() {
+        return thereIsAMill ? lastMoveByColour : !lastMoveByColour;
     }
 
-    public synchronized boolean isInMill(int posX, int posY) {
-        Field field;
-        try {
-            field = grid.getField(posX, posY);
-        } catch (IllegalMoveException e) {
-            return false;
+    /**
+     * Writes every legal move of the acting player into the given buffer (see Move for the encoding).
+     * A placement or move, which closes a mill, is written once for every stone that may be removed afterwards.
+     * Should a mill already have been closed, only the removals are written.
+     * @param moves A buffer of at least MAX_MOVES entries
+     * @return the number of moves written, 0 if the game is over or the acting player is blocked
+     */
+    public synchronized int generateMoves(int[] moves) {
+        if (currentPhase == GamePhase.GAME_OVER) return 0;
+
+        boolean colour = getActingPlayer();
+        int removable = getRemovableStones(!colour);
+        int count = 0;
+
+        if (thereIsAMill) {
+            for (int stones = removable; stones != 0; stones &= stones - 1) {
+                moves[count++] = Move.remove(Integer.numberOfTrailingZeros(stones));
+            }
+            return count;
         }
 
-        if (field.isEmpty()) return false;
+        int own = grid.getStones(colour);
+        int empty = grid.getEmpty();
 
-        for (HashSet<Field> mill : grid.getPossibleMills()) {
-            if (mill.contains(field)) {
-                boolean allTheSameColour = true;
-                for (Field millField : mill) {
-                    if (millField.isEmpty() || millField.getStone().getColour() != field.getStone().getColour()) {
-                        allTheSameColour = false;
-                        break;
-                    }
-                }
-                if (allTheSameColour) return true;
+        if (currentPhase == GamePhase.PLACE_PHASE) {
+            if (getStonesInInventory(colour) == 0) return 0;
+
+            for (int targets = empty; targets != 0; targets &= targets - 1) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                count = addMove(moves, count, Move.place(to), closesMill(own, to), removable);
             }
+            return count;
+        }
+
+        boolean jumping = isInJumpPhase(colour);
+        for (int stones = own; stones != 0; stones &= stones - 1) {
+            int from = Integer.numberOfTrailingZeros(stones);
+            int remaining = own & ~(1 << from);
+            int targets = jumping ? empty : Topology.getAdjacentMask(from) & empty;
+
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                count = addMove(moves, count, Move.move(from, to), closesMill(remaining, to), removable);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks a move, which has not been generated, e.g. one read from an archive. All moves are generated
+     * into a new buffer, so the search does not use it.
+     * @return true if the acting player may make the given move (see Move for the encoding)
+     */
+    public synchronized boolean isLegal(int move) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) return true;
         }
         return false;
     }
 
-    public synchronized boolean isThereAMill() {
-        return thereIsAMill;
+    private static int addMove(int[] moves, int count, int move, boolean closesMill, int removable) {
+        if (!closesMill || removable == 0) {
+            moves[count++] = move;
+            return count;
+        }
+
+        for (; removable != 0; removable &= removable - 1) {
+            moves[count++] = Move.withRemoval(move, Integer.numberOfTrailingZeros(removable));
+        }
+        return count;
     }
 
-    public synchronized boolean isStoneLegalToRemove(int posX, int posY) throws IllegalMoveException {
-        Field field;
-        field = grid.getField(posX, posY);
-        if (field.isEmpty()) throw new IllegalMoveException("There is no stone at the given field, which may be removed");
+    /**
+     * @param stones The stones of the player, without a stone on the given field
+     * @return true if a stone put on the given field would close a mill
+     */
+    private static boolean closesMill(int stones, int index) {
+        stones |= 1 << index;
+        for (int n = 0; n < Topology.MILLS_PER_FIELD; n++) {
+            int mill = Topology.getMillOfField(index, n);
+            if ((stones & mill) == mill) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the bit mask of all stones of the given colour, which may be removed after the other player closed a mill
+     */
+    private int getRemovableStones(boolean colour) {
+        int stones = grid.getStones(colour);
+        int notInMill = stones & ~grid.getStonesInMills(colour);
+        return notInMill != 0 ? notInMill : stones;
+    }
+
+    /**
+     * Makes a move without validating it, so variations can be explored on this game and taken back with unmakeMove.
+     * Neither makeMove nor unmakeMove allocate, once the undo stack has grown to the depth needed.
+     * @param move A move written by generateMoves for the current state of the game
+     */
+    public synchronized void makeMove(int move) {
+        if (undoSize == undoStates.length) {
+            undoStones = Arrays.copyOf(undoStones, undoSize * 2);
+            undoMills = Arrays.copyOf(undoMills, undoSize * 2);
+            undoNextToEmpty = Arrays.copyOf(undoNextToEmpty, undoSize * 2);
+            undoStates = Arrays.copyOf(undoStates, undoSize * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+            undoHistory = Arrays.copyOf(undoHistory, undoSize * 2);
+        }
+        undoStones[undoSize] = grid.getStones(GameInterface.COLOUR_WHITE) & 0xFFFFFFFFL
+                | (long) grid.getStones(GameInterface.COLOUR_BLACK) << 32;
+        undoMills[undoSize] = grid.getStonesInMills(GameInterface.COLOUR_WHITE) & 0xFFFFFFFFL
+                | (long) grid.getStonesInMills(GameInterface.COLOUR_BLACK) << 32;
+        undoNextToEmpty[undoSize] = grid.getNextToEmpty();
+        undoStates[undoSize] = packState();
+        undoKeys[undoSize] = positionKey;
+        undoHistory[undoSize] = historyStart | (long) historySize << 32;
+        undoSize++;
+
+        int to = Move.getTo(move);
+        if (to != Move.NONE) {
+            int from = Move.getFrom(move);
+            if (from == Move.NONE) applyPlaceStone(getActingPlayer(), to);
+            else applyMoveStone(from, to);
+        }
+
+        if (Move.getRemoved(move) != Move.NONE) {
+            applyRemoveStone(Move.getRemoved(move));
+        }
+
+        if (!thereIsAMill) recordPosition(Move.getFrom(move) == Move.NONE || Move.getRemoved(move) != Move.NONE);
+    }
+
+    /**
+     * Takes back the last move made with makeMove.
+     * @throws IllegalStateException Should there be no move to take back
+     */
+    public synchronized void unmakeMove() {
+        if (undoSize == 0) throw new IllegalStateException("There is no move to take back.");
+
+        undoSize--;
+        long stones = undoStones[undoSize];
+        long mills = undoMills[undoSize];
+        grid.restore((int) stones, (int) (stones >>> 32), (int) mills, (int) (mills >>> 32), undoNextToEmpty[undoSize]);
+        unpackState(undoStates[undoSize]);
+        positionKey = undoKeys[undoSize];
+
+        long history = undoHistory[undoSize];
+        while (historySize > (int) (history >>> 32)) {
+            historyCounts[getBucket(historyKeys[--historySize])]--;
+        }
+        historyStart = (int) history;
+    }
+
+    /**
+     * Adds the position after a complete move to the history and draws the game, should the position have
+     * occurred REPETITIONS times or should there have been MAX_PLIES_WITHOUT_MILL plies since the last placement
+     * or removal. Those cannot be taken back, so the positions before them are dropped, unless the move
+     * has been made with makeMove and may be taken back itself.
+     * @param irreversible true if a stone has been placed or removed
+     */
+    private void recordPosition(boolean irreversible) {
+        if (irreversible) {
+            if (undoSize == 0) {
+                while (historySize > 0) {
+                    historyCounts[getBucket(historyKeys[--historySize])]--;
+                }
+            }
+            historyStart = historySize;
+        }
+        addToHistory(positionKey);
+
+        if (currentPhase != GamePhase.GAME_OVER
+                && (historySize - historyStart > MAX_PLIES_WITHOUT_MILL || isRepeated(positionKey))) {
+            draw = true;
+            setPhase(GamePhase.GAME_OVER);
+        }
+    }
+
+    private void addToHistory(long key) {
+        if (historySize == historyKeys.length) historyKeys = Arrays.copyOf(historyKeys, historySize * 2);
+        historyKeys[historySize++] = key;
+        historyCounts[getBucket(key)]++;
+    }
+
+    /**
+     * @return true if the given position, the last one of the history, has occurred REPETITIONS times
+     */
+    private boolean isRepeated(long key) {
+        if (historyCounts[getBucket(key)] < REPETITIONS) return false;
+
+        // the key covers the turn, so only every other position may be the same
+        int occurrences = 0;
+        for (int i = historySize - 1; i >= historyStart; i -= 2) {
+            if (historyKeys[i] == key) occurrences++;
+        }
+        return occurrences >= REPETITIONS;
+    }
 
-        return !isInMill(posX, posY) || areAllStonesInAMill(field.getStone().getColour());
+    private static int getBucket(long key) {
+        return (int) key & (REPETITION_BUCKETS - 1);
     }
 
-    public synchronized GameStatus getStatus() {
-        return new GameStatus(
-                getPhase(),
-                isThereAMill(),
+    private int packState() {
+        return whiteStonesInInventory
+                | blackStonesInInventory << 4
+                | whiteStonesOnTheGrid << 8
+                | blackStonesOnTheGrid << 12
+                | (whiteInJumpPhase ? 1 << 16 : 0)
+                | (blackInJumpPhase ? 1 << 17 : 0)
+                | (thereIsAMill ? 1 << 18 : 0)
+                | (lastMoveByColour ? 1 << 19 : 0)
+                | currentPhase.ordinal() << 20
+                | (draw ? 1 << 23 : 0);
+    }
+
+    private void unpackState(int state) {
+        whiteStonesInInventory = state & 0xF;
+        blackStonesInInventory = (state >>> 4) & 0xF;
+        whiteStonesOnTheGrid = (state >>> 8) & 0xF;
+        blackStonesOnTheGrid = (state >>> 12) & 0xF;
+        whiteInJumpPhase = (state & 1 << 16) != 0;
+        blackInJumpPhase = (state & 1 << 17) != 0;
+        thereIsAMill = (state & 1 << 18) != 0;
+        lastMoveByColour = (state & 1 << 19) != 0;
+        currentPhase = PHASES[(state >>> 20) & 0x7];
+        draw = (state & 1 << 23) != 0;
+    }
+
+    /**
+     * Gets the Zobrist key of the current state. It covers the stones, the inventories, the turn,
+     * a pending mill, the jump phases and the game phase and is updated with every move.
+     */
+    public synchronized long getPositionKey() {
+        return positionKey;
+    }
+
+    /**
+     * Gets a Zobrist key, which is the same for all positions of one symmetry class (see Symmetry),
+     * so caches and databases need only one entry per class.
+     */
+    public synchronized long getCanonicalPositionKey() {
+        int white = grid.getStones(GameInterface.COLOUR_WHITE);
+        int black = grid.getStones(GameInterface.COLOUR_BLACK);
+        int symmetry = Symmetry.canonicalSymmetry(white, black);
+        if (symmetry == 0) return positionKey;
+
+        return positionKey
+                ^ Zobrist.stones(GameInterface.COLOUR_WHITE, white ^ Symmetry.transform(symmetry, white))
+                ^ Zobrist.stones(GameInterface.COLOUR_BLACK, black ^ Symmetry.transform(symmetry, black));
+    }
+
+    /**
+     * Computes the Zobrist key of the current state from scratch. Only needed to check getPositionKey.
+     */
+    public synchronized long computePositionKey() {
+        return Zobrist.hash(
+                grid.getStones(GameInterface.COLOUR_WHITE),
+                grid.getStones(GameInterface.COLOUR_BLACK),
+                currentPhase,
+                lastMoveByColour,
+                thereIsAMill,
                 whiteStonesInInventory,
                 blackStonesInInventory,
-                whiteStonesOnTheGrid,
-                blackStonesOnTheGrid,
                 whiteInJumpPhase,
                 blackInJumpPhase
         );
     }
 
+    public synchronized GamePhase getPhase() {
+        return currentPhase;
+    }
+
+    /**
+     * @return true if the game is over, because a position has been repeated or no mill has been closed for too long
+     */
+    public synchronized boolean isDraw() {
+        return draw;
+    }
+
+    /**
+     * @return the winner of a finished game, null if it is still running or drawn
+     */
+    public synchronized Boolean getWinner() {
+        if (currentPhase != GamePhase.GAME_OVER || draw) return null;
+        // the player to move has lost a finished game
+        return lastMoveByColour;
+    }
+
+    public synchronized boolean isInMill(int posX, int posY) {
+        int index = Topology.indexOf(posX, posY);
+        return index >= 0 && grid.isInMill(index);
+    }
+
+    public synchronized boolean isThereAMill() {
+        return thereIsAMill;
+    }
+
+    public synchronized boolean isStoneLegalToRemove(int posX, int posY) throws IllegalMoveException {
+        int index = grid.getIndex(posX, posY);
+        if (grid.isEmpty(index)) throw new IllegalMoveException("There is no stone at the given field, which may be removed");
+
+        return isStoneLegalToRemove(index);
+    }
+
+    private boolean isStoneLegalToRemove(int index) {
+        return (getRemovableStones(grid.getColour(index)) & (1 << index)) != 0;
+    }
+
+    /**
+     * Gets the status of the last published snapshot, without locking the game.
+     */
+    public GameStatus getStatus() {
+        return snapshot.getStatus();
+    }
+
+    /**
+     * Gets the state after the last change, without locking the game (see GameSnapshot).
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Override
     public String toString() {
         return grid.toString();
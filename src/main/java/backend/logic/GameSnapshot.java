@@ -0,0 +1,55 @@
+package backend.logic;
+
+import interfaces.GameInterface;
+import interfaces.GameStatus;
+
+/**
+ * Immutable state of a game after a move. Game publishes a new snapshot after every change of its state,
+ * so readers like spectators or metrics get a consistent state without locking the game.
+ * Moves made with Game.makeMove are not published.
+ */
+public final class GameSnapshot {
+    private final long version;
+    private final GameStatus status;
+
+    private final int whiteStones;
+    private final int blackStones;
+
+    private final boolean currentPlayer;
+    private final long positionKey;
+
+    GameSnapshot(long version, GameStatus status, int whiteStones, int blackStones, boolean currentPlayer, long positionKey) {
+        this.version = version;
+        this.status = status;
+        this.whiteStones = whiteStones;
+        this.blackStones = blackStones;
+        this.currentPlayer = currentPlayer;
+        this.positionKey = positionKey;
+    }
+
+    /**
+     * @return the number of changes made to the game before this snapshot has been taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the bit mask of all stones of the given colour (see Topology for the numbering of the fields)
+     */
+    public int getStones(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteStones : blackStones;
+    }
+
+    public boolean getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public long getPositionKey() {
+        return positionKey;
+    }
+}
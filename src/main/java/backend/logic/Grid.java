@@ -5,151 +5,217 @@ import interfaces.GameInterface;
 import interfaces.IllegalMoveException;
 import interfaces.StoneInterface;
 
+/**
+ * The play field as two bitboards, one bit per field and colour (see Topology for the numbering of the fields),
+ * so mills, adjacency and mobility can be answered with a few mask operations.
+ * Which stones are part of a mill and which fields have an empty adjacent field is updated with every change,
+ * so these questions are answered in constant time.
+ */
 public class Grid {
     public static final int LIMIT_X = 7;
     public static final int LIMIT_Y = 7;
 
-    private final Field[][] grid;
+    private static final Stone WHITE_STONE = new Stone(GameInterface.COLOUR_WHITE);
+    private static final Stone BLACK_STONE = new Stone(GameInterface.COLOUR_BLACK);
 
-    private final HashSet<HashSet<Field>> possibleMills = new HashSet<>();
+    private int whiteStones = 0;
+    private int blackStones = 0;
 
-    public Grid() {
-        grid = new Field[LIMIT_Y][LIMIT_X];
+    private int whiteStonesInMills = 0;
+    private int blackStonesInMills = 0;
 
-        for (int y = 0; y < LIMIT_Y; y++) {
-            for (int x = 0; x < LIMIT_X; x++) {
-                grid[y][x] = new Field(x, y);
-            }
-        }
+    // all fields (empty or not) with at least one empty adjacent field
+    private int nextToEmpty = Topology.ALL_FIELDS;
+
+    public Grid() {}
+
+    /**
+     * Gets the index of the field at a grid position.
+     * @throws IllegalMoveException should there be no field at this position
+     */
+    public int getIndex(int posX, int posY) throws IllegalMoveException {
+        checkValidityOfFieldPosition(posX, posY);
+        return Topology.indexOf(posX, posY);
     }
 
     /**
-     * Checks, whether a grid position is valid or out of bounds (helper function)
-     * @throws ArrayIndexOutOfBoundsException When the posX or posY are out of bounds (7x7 grid)
-     * @throws IllegalArgumentException When the given position is illegal for the game's grid (e.g. x=0, y=1)
-     * @param posX The field's x-position in the grid
-     * @param posY The field's y-position in the grid
-     *
-     * @throws IllegalArgumentException If the position is invalid on the grid
-     * @throws ArrayIndexOutOfBoundsException If the position is out of bounds for the grid
+     * @return the bit mask of all fields with a stone of the given colour
      */
-    public void checkValidityOfFieldPosition(int posX, int posY) throws IllegalMoveException {
-        if (posX >= LIMIT_X || posY >= LIMIT_Y || posX < 0 || posY < 0) {
-            throw new IllegalMoveException("The given x- or y-positions do not exist in a nine men's morris game. A grid is 7x7 and the given values are out of bounds.");
+    public int getStones(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteStones : blackStones;
+    }
+
+    /**
+     * @return the bit mask of all fields without a stone
+     */
+    public int getEmpty() {
+        return ~(whiteStones | blackStones) & Topology.ALL_FIELDS;
+    }
+
+    public boolean isEmpty(int index) {
+        return ((whiteStones | blackStones) & (1 << index)) == 0;
+    }
+
+    /**
+     * @return the colour of the stone on the field, the field must not be empty
+     */
+    public boolean getColour(int index) {
+        return (whiteStones & (1 << index)) != 0;
+    }
+
+    void setStone(int index, boolean colour) {
+        int stones;
+        if (colour == GameInterface.COLOUR_WHITE) stones = whiteStones |= 1 << index;
+        else stones = blackStones |= 1 << index;
+
+        // a new stone can only close the mills it is part of
+        int inMills = 0;
+        for (int n = 0; n < Topology.MILLS_PER_FIELD; n++) {
+            int mill = Topology.getMillOfField(index, n);
+            if ((stones & mill) == mill) inMills |= mill;
+        }
+        if (colour == GameInterface.COLOUR_WHITE) whiteStonesInMills |= inMills;
+        else blackStonesInMills |= inMills;
+
+        // the field is not empty anymore, which only matters for its adjacent fields
+        int empty = getEmpty();
+        for (int adjacent = Topology.getAdjacentMask(index); adjacent != 0; adjacent &= adjacent - 1) {
+            int field = Integer.numberOfTrailingZeros(adjacent);
+            if ((Topology.getAdjacentMask(field) & empty) == 0) nextToEmpty &= ~(1 << field);
         }
+    }
 
-        if (posX > Math.floorDiv(LIMIT_X, 2))
-            posX = (LIMIT_X - 1 - posX) % (LIMIT_X - 1);
+    void clearStone(int index) {
+        boolean colour = getColour(index);
+        whiteStones &= ~(1 << index);
+        blackStones &= ~(1 << index);
+
+        // the stones, which were in a mill with the removed one, may still be part of their other mill
+        int inMills = getStonesInMills(colour);
+        if ((inMills & (1 << index)) != 0) {
+            int stones = getStones(colour);
+            int affected = 0;
+            for (int n = 0; n < Topology.MILLS_PER_FIELD; n++) {
+                affected |= Topology.getMillOfField(index, n);
+            }
+            inMills &= ~affected;
 
-        if (posY > Math.floorDiv(LIMIT_Y, 2))
-            posY = (LIMIT_Y - 1 - posY) % (LIMIT_Y - 1);
+            for (affected &= stones; affected != 0; affected &= affected - 1) {
+                int field = Integer.numberOfTrailingZeros(affected);
+                for (int n = 0; n < Topology.MILLS_PER_FIELD; n++) {
+                    int mill = Topology.getMillOfField(field, n);
+                    if ((stones & mill) == mill) inMills |= mill;
+                }
+            }
 
-        if (    (posX == 0 && (posY == 1 || posY == 2)) ||
-                (posX == 1 && (posY == 0 || posY == 2)) ||
-                (posX == 2 && (posY == 0 || posY == 1)) ||
-                (posX == 3 && posY == 3)
-        ) {
-            throw new IllegalMoveException("The given x- or y-positions do not exist in a nine men's morris game. There is no field at this position.");
+            if (colour == GameInterface.COLOUR_WHITE) whiteStonesInMills = inMills;
+            else blackStonesInMills = inMills;
         }
+
+        nextToEmpty |= Topology.getAdjacentMask(index);
     }
 
     /**
-     * Helper function to reduce duplicate code.
-     * @param two Two consecutive adjacent fields (so two fields that are adjacent)
-     * @param x x-position of the start field (from which the other two fields were discovered)
-     * @param y y-position of the start field
-     * @throws IllegalMoveException Should there be no field at the given x and y coordinates
+     * Replaces all stones at once, used to take back moves. The other masks have to be taken from
+     * this grid, while it held the given stones.
      */
-    private void helperGenerateMills(HashSet<Field> two, int x, int y) throws IllegalMoveException {
-        if (two != null) {
-            two.add(getField(x, y));
-            possibleMills.add(two);
-        }
+    void restore(int whiteStones, int blackStones, int whiteStonesInMills, int blackStonesInMills, int nextToEmpty) {
+        this.whiteStones = whiteStones;
+        this.blackStones = blackStones;
+        this.whiteStonesInMills = whiteStonesInMills;
+        this.blackStonesInMills = blackStonesInMills;
+        this.nextToEmpty = nextToEmpty;
+    }
+
+    int getNextToEmpty() {
+        return nextToEmpty;
     }
 
     /**
-     * Populate class property possibleMills with all possible mills on the play field.
-     * Loops through all fields, which are on a diagonal from top left to bottom right.
-     *
-     * TODO This function needs to be reworked, because it is hideous.
-     *
-     * @throws IllegalMoveException Should helperGenerateMills throw an exception.
+     * Checks whether the stone on the given field is part of a mill.
+     * @return false if the field is empty or not part of a closed mill
      */
-    public void generateMills() throws IllegalMoveException {
-        for (int y = 0; y < LIMIT_Y; y++) {
-            for (int x = 0; x < LIMIT_X; x++) {
-                if ((x == y && x != 3) || (x==2 && y==3) || (x==3 && y==4) || (x==4 && y==3) || (x==3 && y==2)) {
+    public boolean isInMill(int index) {
+        return ((whiteStonesInMills | blackStonesInMills) & (1 << index)) != 0;
+    }
 
-                    HashSet<Field> two = getTwoConsecutiveAdjacentFields(x, LIMIT_X, 1, y, true);
-                    helperGenerateMills(two, x, y);
+    /**
+     * @return the bit mask of all stones of the given colour, which are part of a mill
+     */
+    public int getStonesInMills(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? whiteStonesInMills : blackStonesInMills;
+    }
 
-                    two = getTwoConsecutiveAdjacentFields(x, LIMIT_X, -1, y, true);
-                    helperGenerateMills(two, x, y);
+    /**
+     * @return the bit mask of all stones of the given colour, which have an empty adjacent field
+     */
+    public int getMovableStones(boolean colour) {
+        return getStones(colour) & nextToEmpty;
+    }
 
-                    two = getTwoConsecutiveAdjacentFields(y, LIMIT_Y, 1, x, false);
-                    helperGenerateMills(two, x, y);
+    /**
+     * @return true if at least one stone of the given colour has an empty adjacent field
+     */
+    public boolean hasMovableStones(boolean colour) {
+        return getMovableStones(colour) != 0;
+    }
 
-                    two = getTwoConsecutiveAdjacentFields(y, LIMIT_Y, -1, x, false);
-                    helperGenerateMills(two, x, y);
-                }
-            }
+    /**
+     * Checks, whether a grid position is valid or out of bounds (helper function)
+     * @throws ArrayIndexOutOfBoundsException When the posX or posY are out of bounds (7x7 grid)
+     * @throws IllegalArgumentException When the given position is illegal for the game's grid (e.g. x=0, y=1)
+     * @param posX The field's x-position in the grid
+     * @param posY The field's y-position in the grid
+     *
+     * @throws IllegalArgumentException If the position is invalid on the grid
+     * @throws ArrayIndexOutOfBoundsException If the position is out of bounds for the grid
+     */
+    public void checkValidityOfFieldPosition(int posX, int posY) throws IllegalMoveException {
+        MoveResult result = validateFieldPosition(posX, posY);
+        if (!result.isLegal()) {
+            throw new IllegalMoveException(result.getMessage());
         }
     }
 
-    public HashSet<HashSet<Field>> getPossibleMills() {
-        return possibleMills;
+    /**
+     * Checks, whether a grid position is valid or out of bounds, without throwing an exception.
+     * @param posX The field's x-position in the grid
+     * @param posY The field's y-position in the grid
+     * @return OK, OUT_OF_BOUNDS for positions outside the 7x7 grid or NO_FIELD for positions without a field (e.g. x=0, y=1)
+     */
+    public static MoveResult validateFieldPosition(int posX, int posY) {
+        if (posX >= LIMIT_X || posY >= LIMIT_Y || posX < 0 || posY < 0) return MoveResult.OUT_OF_BOUNDS;
+        if (Topology.indexOf(posX, posY) < 0) return MoveResult.NO_FIELD;
+        return MoveResult.OK;
     }
 
     /**
-     * Going from the start field, this function discovers two fields, which are adjacent to each other and in "one line" with the start field.
-     * @param moveCoordinate The variable coordinate of the start field
-     * @param limitMoveCoordinate The limit of the variable coordinate
-     * @param step The direction we are going into
-     * @param fixCoordinate The constant coordinate of the start field
-     * @param xComesFirst Swaps x and y position, because moveCoordinate as well as fixCoordinate may be x or y.
-     * @return Two consecutive adjacent fields for the start field.
+     * The mills are part of the shared Topology now, so there is nothing left to generate.
+     * @deprecated only kept for callers of the old API, use Topology instead
      */
-    public HashSet<Field> getTwoConsecutiveAdjacentFields(int moveCoordinate, int limitMoveCoordinate, int step, int fixCoordinate, boolean xComesFirst) {
-        Field field = getAdjacentFieldsLoop(moveCoordinate, limitMoveCoordinate, step, fixCoordinate, xComesFirst);
-        if (field != null) {
-            Field field2;
-
-            if (xComesFirst)
-                field2 = getAdjacentFieldsLoop(field.getPosX(), LIMIT_X, step, field.getPosY(), true);
-            else
-                field2 = getAdjacentFieldsLoop(field.getPosY(), LIMIT_Y, step, field.getPosX(), false);
-
-            if (field2 != null) {
-                return new HashSet<>() {{
-                    add(field);
-                    add(field2);
-                }};
-            }
-        }
-        return null;
-    }
+    @Deprecated
+    public void generateMills() {}
 
     /**
-     * Helper Function for getting all adjacent fields
-     * @param moveCoordinate The coordinate which we move along to find adjacent fields
-     * @param limitMoveCoordinate The limit, where the grid ends
-     * @param step Whether we move in the negative or positive direction
-     * @param fixCoordinate The fixed coordinate (the line on which we search for adjacent fields)
-     * @param xComesFirst Sets the order in which we store the coordinates in the result array
-     * @return A set of all adjacent fields
+     * Gives all mills as sets of fields, as they look at the moment.
+     * @deprecated allocates a set per mill, use Topology.getMill and the bitboards instead
      */
-    private Field getAdjacentFieldsLoop(int moveCoordinate, int limitMoveCoordinate, int step, int fixCoordinate, boolean xComesFirst) {
-        while (moveCoordinate < limitMoveCoordinate && moveCoordinate >= 0) {
-            moveCoordinate = moveCoordinate + step;
-            try {
-                if (fixCoordinate == 3 && moveCoordinate == 3) break;
-                checkValidityOfFieldPosition(moveCoordinate, fixCoordinate);
-                if (xComesFirst) return getField(moveCoordinate, fixCoordinate);
-                else return getField(fixCoordinate, moveCoordinate);
-
-            } catch (IllegalMoveException ignored) {}
+    @Deprecated
+    public HashSet<HashSet<Field>> getPossibleMills() {
+        HashSet<HashSet<Field>> possibleMills = new HashSet<>();
+        for (int m = 0; m < Topology.MILL_COUNT; m++) {
+            possibleMills.add(getFields(Topology.getMill(m)));
+        }
+        return possibleMills;
+    }
+
+    private HashSet<Field> getFields(int mask) {
+        HashSet<Field> set = new HashSet<>();
+        while (mask != 0) {
+            set.add(getField(Integer.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
         }
-        return null;
+        return set;
     }
 
     /**
@@ -160,19 +226,7 @@ public class Grid {
      * @throws IllegalMoveException should the given coordinates of the field be invalid
      */
     public HashSet<Field> getAdjacentFields(int posX, int posY) throws IllegalMoveException {
-        checkValidityOfFieldPosition(posX, posY);
-
-        // TODO Redo this in a mathematically pleasing way
-        HashSet<Field> set = new HashSet<>(){};
-
-        set.add(getAdjacentFieldsLoop(posX, LIMIT_X, 1, posY, true));
-        set.add(getAdjacentFieldsLoop(posX, LIMIT_X, -1, posY, true));
-        set.add(getAdjacentFieldsLoop(posY, LIMIT_Y, 1, posX, false));
-        set.add(getAdjacentFieldsLoop(posY, LIMIT_Y, -1, posX, false));
-
-        set.remove(null);
-
-        return set;
+        return getFields(Topology.getAdjacentMask(getIndex(posX, posY)));
     }
 
     /**
@@ -185,13 +239,10 @@ public class Grid {
      * @throws IllegalMoveException should either one of the fields not be valid
      */
     public boolean areFieldsAdjacent(int posX, int posY, int posX2, int posY2) throws IllegalMoveException {
-        checkValidityOfFieldPosition(posX, posY);
-        checkValidityOfFieldPosition(posX2, posY2);
-
-        HashSet<Field> adjacentFields = getAdjacentFields(posX, posY);
-        Field pos2 = getField(posX2, posY2);
+        int index = getIndex(posX, posY);
+        int index2 = getIndex(posX2, posY2);
 
-        return adjacentFields.contains(pos2);
+        return (Topology.getAdjacentMask(index) & (1 << index2)) != 0;
     }
 
     /**
@@ -206,8 +257,13 @@ public class Grid {
      * @throws ArrayIndexOutOfBoundsException If the position is out of bounds for the field's grid
      */
     public Field getField(int posX, int posY) throws IllegalMoveException {
-        checkValidityOfFieldPosition(posX, posY);
-        return grid[posY][posX];
+        return getField(getIndex(posX, posY));
+    }
+
+    private Field getField(int index) {
+        StoneInterface stone = null;
+        if (!isEmpty(index)) stone = getColour(index) == GameInterface.COLOUR_WHITE ? WHITE_STONE : BLACK_STONE;
+        return new Field(Topology.getPosX(index), Topology.getPosY(index), stone);
     }
 
     /**
@@ -220,9 +276,9 @@ public class Grid {
      * @throws ArrayIndexOutOfBoundsException If the position is out of bounds for the field's grid
      */
     public void removeStone(int posX, int posY) throws IllegalMoveException {
-        Field field = getField(posX, posY);
-        if (field.isEmpty()) throw new IllegalMoveException("There is no stone at the given field.");
-        grid[posY][posX].removeStone();
+        int index = getIndex(posX, posY);
+        if (isEmpty(index)) throw new IllegalMoveException("There is no stone at the given field.");
+        clearStone(index);
     }
 
     /**
@@ -237,13 +293,13 @@ public class Grid {
      * @throws ArrayIndexOutOfBoundsException If the position is out of bounds for the field's grid
      */
     public void placeStone(int posX, int posY, StoneInterface stone) throws IllegalMoveException {
-        checkValidityOfFieldPosition(posX, posY);
+        int index = getIndex(posX, posY);
 
-        if (!getField(posX, posY).isEmpty()) {
+        if (!isEmpty(index)) {
             throw new IllegalMoveException("There already is a stone at this position.");
         }
 
-        grid[posY][posX].setStone(stone);
+        setStone(index, stone.getColour());
     }
 
     /**
@@ -261,18 +317,17 @@ public class Grid {
         if (posX == toPosX && posY == toPosY)
             throw new IllegalMoveException("A move to the same field is not allowed.");
 
-        Field field = getField(posX, posY);
-        if (field.isEmpty())
+        int index = getIndex(posX, posY);
+        if (isEmpty(index))
             throw new IllegalMoveException("You may only move stones, so please choose a not empty field.");
 
-        Field toField = getField(toPosX, toPosY);
-       if (!toField.isEmpty())
+        int toIndex = getIndex(toPosX, toPosY);
+        if (!isEmpty(toIndex))
             throw new IllegalMoveException("You may only move stones to empty fields.");
 
-       StoneInterface stone = field.getStone();
-
-        removeStone(posX, posY);
-        placeStone(toPosX, toPosY, stone);
+        boolean colour = getColour(index);
+        clearStone(index);
+        setStone(toIndex, colour);
     }
 
     public void moveStoneToAdjacentField(int posX, int posY, int toPosX, int toPosY) throws IllegalMoveException {
@@ -284,12 +339,20 @@ public class Grid {
     }
 
     /**
-     * Gives the whole grid as an array.
+     * Gives a snapshot of the whole grid as an array.
+     * Positions without a field are represented by empty fields.
      * @return the game's grid
      */
     @SuppressWarnings("unused")
     public Field[][] getGrid() {
-        return grid;
+        Field[][] fields = new Field[LIMIT_Y][LIMIT_X];
+        for (int y = 0; y < LIMIT_Y; y++) {
+            for (int x = 0; x < LIMIT_X; x++) {
+                int index = Topology.indexOf(x, y);
+                fields[y][x] = index < 0 ? new Field(x, y) : getField(index);
+            }
+        }
+        return fields;
     }
 
     @Override
@@ -297,16 +360,14 @@ public class Grid {
         StringBuilder stringBuilder = new StringBuilder();
         for (int y = 0; y < LIMIT_Y; y++) {
             for (int x = 0; x < LIMIT_X; x++) {
-                try {
-                    Field field = getField(x, y);
-                    String m = " ";
-                    if (field.isEmpty()) m = "o";
-                    else if (field.getStone().getColour() == GameInterface.COLOUR_BLACK) m = "B";
-                    else if (field.getStone().getColour() == GameInterface.COLOUR_WHITE) m = "W";
-                    stringBuilder.append(m).append(" ");
-                } catch (IllegalMoveException ignored) {
-                    stringBuilder.append("  ");
+                int index = Topology.indexOf(x, y);
+                String m = " ";
+                if (index >= 0) {
+                    if (isEmpty(index)) m = "o";
+                    else if (getColour(index) == GameInterface.COLOUR_BLACK) m = "B";
+                    else m = "W";
                 }
+                stringBuilder.append(m).append(" ");
             }
             stringBuilder.append("\n");
         }
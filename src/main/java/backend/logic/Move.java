@@ -0,0 +1,114 @@
+package backend.logic;
+
+/**
+ * Moves packed into a single int, so they can be generated into primitive buffers without allocating.
+ * A move consists of three field indices (see Topology), five bits each:
+ * the field a stone is moved from, the field a stone is placed or moved to and the field of the stone,
+ * which is removed afterwards. Unused parts are NONE, so a placement has no from-field,
+ * a move which does not close a mill has no removed field and a lone removal (after a mill
+ * has been closed, but before a stone was removed) only has a removed field.
+ */
+public final class Move {
+    public static final int NONE = 31;
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final int FROM_SHIFT = 0;
+    private static final int TO_SHIFT = BITS;
+    private static final int REMOVED_SHIFT = 2 * BITS;
+
+    private Move() {}
+
+    private static int of(int from, int to, int removed) {
+        return from << FROM_SHIFT | to << TO_SHIFT | removed << REMOVED_SHIFT;
+    }
+
+    public static int place(int to) {
+        return of(NONE, to, NONE);
+    }
+
+    public static int move(int from, int to) {
+        return of(from, to, NONE);
+    }
+
+    public static int remove(int removed) {
+        return of(NONE, NONE, removed);
+    }
+
+    /**
+     * @return the given placement or move, followed by the removal of a stone
+     */
+    public static int withRemoval(int move, int removed) {
+        return (move & ~(MASK << REMOVED_SHIFT)) | removed << REMOVED_SHIFT;
+    }
+
+    public static int getFrom(int move) {
+        return (move >>> FROM_SHIFT) & MASK;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & MASK;
+    }
+
+    public static int getRemoved(int move) {
+        return (move >>> REMOVED_SHIFT) & MASK;
+    }
+
+    public static boolean isPlacement(int move) {
+        return getFrom(move) == NONE && getTo(move) != NONE;
+    }
+
+    public static boolean isRemoval(int move) {
+        return getRemoved(move) != NONE;
+    }
+
+    /**
+     * Gives a field in the usual notation, columns a to g from left to right and rows 1 to 7 from bottom to top.
+     */
+    public static String fieldToString(int index) {
+        return "" + (char) ('a' + Topology.getPosX(index)) + (Grid.LIMIT_Y - Topology.getPosY(index));
+    }
+
+    /**
+     * Reverses fieldToString.
+     * @throws IllegalArgumentException Should there be no field with the given name
+     */
+    public static int fieldFromString(String field) {
+        int index = field.length() != 2 ? -1 : Topology.indexOf(field.charAt(0) - 'a', Grid.LIMIT_Y - (field.charAt(1) - '0'));
+        if (index < 0) throw new IllegalArgumentException("There is no field " + field);
+        return index;
+    }
+
+    /**
+     * Reverses toString.
+     * @throws IllegalArgumentException Should the given text not be a move in the usual notation
+     */
+    public static int fromString(String move) {
+        int removal = move.indexOf('x');
+        String fields = removal < 0 ? move : move.substring(0, removal);
+        int removed = removal < 0 ? NONE : fieldFromString(move.substring(removal + 1));
+
+        if (fields.isEmpty()) {
+            if (removed == NONE) throw new IllegalArgumentException("There is no move in \"" + move + "\"");
+            return remove(removed);
+        }
+
+        int separator = fields.indexOf('-');
+        int placedOrMoved = separator < 0 ? place(fieldFromString(fields))
+                : move(fieldFromString(fields.substring(0, separator)), fieldFromString(fields.substring(separator + 1)));
+        return removed == NONE ? placedOrMoved : withRemoval(placedOrMoved, removed);
+    }
+
+    /**
+     * Gives a move in the usual notation, e.g. "d7" for a placement, "d7-d6" for a move and "d7-d6xa1",
+     * if a stone is removed afterwards. A lone removal is written as "xa1".
+     */
+    public static String toString(int move) {
+        StringBuilder stringBuilder = new StringBuilder();
+        if (getFrom(move) != NONE) stringBuilder.append(fieldToString(getFrom(move))).append('-');
+        if (getTo(move) != NONE) stringBuilder.append(fieldToString(getTo(move)));
+        if (getRemoved(move) != NONE) stringBuilder.append('x').append(fieldToString(getRemoved(move)));
+        return stringBuilder.toString();
+    }
+}
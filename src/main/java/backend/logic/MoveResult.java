@@ -0,0 +1,47 @@
+package backend.logic;
+
+/**
+ * Outcome of validating a move, so illegal moves can be rejected without throwing an exception.
+ * Every result except OK carries the message, which is sent to the player.
+ */
+public enum MoveResult {
+    OK(null),
+
+    OUT_OF_BOUNDS("The given x- or y-positions do not exist in a nine men's morris game. A grid is 7x7 and the given values are out of bounds."),
+    NO_FIELD("The given x- or y-positions do not exist in a nine men's morris game. There is no field at this position."),
+
+    NOT_YOUR_TURN("It's the other player's turn."),
+    GAME_OVER("The game is already over."),
+    MILL_PENDING("You have to remove a stone before you can make another move."),
+
+    NOT_PLACE_PHASE("The game is currently not in the place phase."),
+    NO_STONES_LEFT("You do not have any stones left"),
+    FIELD_OCCUPIED("There already is a stone at this position."),
+
+    NOT_MOVE_PHASE("You may only move stones after all stones have been placed."),
+    FIELD_EMPTY("You may only move stones, so please choose a not empty field."),
+    NOT_YOUR_STONE("You may only move your own stones."),
+    BLOCKED("None of your stones can be moved, so you lost the game."),
+    SAME_FIELD("A move to the same field is not allowed."),
+    NOT_ADJACENT("The fields are not adjacent to each other."),
+    TARGET_OCCUPIED("You may only move stones to empty fields."),
+
+    NO_MILL("You may not remove a stone if you do not have a mill"),
+    NOTHING_TO_REMOVE("There is no stone at the given field, which may be removed"),
+    OWN_STONE("You may not remove one of your own stones"),
+    STONE_IN_MILL("This stone may not be removed.");
+
+    private final String message;
+
+    MoveResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isLegal() {
+        return this == OK;
+    }
+}
@@ -0,0 +1,117 @@
+package backend.logic;
+
+import interfaces.IllegalMoveException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the positions reached after exactly depth moves (perft), using generateMoves, makeMove and unmakeMove
+ * of Game. The counts only depend on the rules, so they catch changes to the move generation, and the time
+ * needed for them measures its speed. A move, which closes a mill, counts once for every stone that may be
+ * removed (see Game.generateMoves) and a finished game has no moves, so it adds nothing below its depth.
+ * Usage: Perft [depth] [threads] [moves from the start position in the usual notation, e.g. d7 a7 d6]
+ */
+public final class Perft {
+    // one buffer of moves per ply
+    private final int[][] moves;
+
+    private Perft(int depth) {
+        moves = new int[Math.max(depth, 1)][Game.MAX_MOVES];
+    }
+
+    public static void main(String[] args) throws IllegalMoveException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Game game = new Game(false, 0);
+        int[] legal = new int[Game.MAX_MOVES];
+        for (int i = 2; i < args.length; i++) {
+            int move = Move.fromString(args[i]);
+            if (!contains(legal, game.generateMoves(legal), move))
+                throw new IllegalArgumentException(args[i] + " is not a legal move in this position");
+            game.makeMove(move);
+        }
+
+        System.out.println(game);
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = count(game, d, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("depth %2d: %,16d nodes in %8.3f s, %,14d nodes/s%n", d, nodes, seconds, (long) (nodes / seconds));
+        }
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of positions reached from the given game after exactly depth moves
+     */
+    public static long count(Game game, int depth) {
+        return new Perft(depth).countNodes(game.copy(), depth, 0);
+    }
+
+    /**
+     * Counts like count(game, depth), but hands out the moves of the given game to the given number of threads.
+     */
+    public static long count(Game game, int depth, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+        if (threads == 1 || depth < 2) return count(game, depth);
+
+        int[] rootMoves = new int[Game.MAX_MOVES];
+        int count = game.generateMoves(rootMoves);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "perft");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Game position = game.copy();
+                position.makeMove(rootMoves[i]);
+                results.add(executor.submit(() -> new Perft(depth - 1).countNodes(position, depth - 1, 0)));
+            }
+
+            long nodes = 0;
+            for (Future<Long> result : results) {
+                nodes += result.get();
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long countNodes(Game game, int depth, int ply) {
+        if (depth == 0) return 1;
+
+        int[] buffer = moves[ply];
+        int count = game.generateMoves(buffer);
+        // the moves themselves are the positions one move deeper
+        if (depth == 1) return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(buffer[i]);
+            nodes += countNodes(game, depth - 1, ply + 1);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,246 @@
+package backend.logic;
+
+import interfaces.GameInterface;
+
+import java.util.Arrays;
+
+/**
+ * Numbers all positions with a given number of stones (and stones in the inventories) per side densely
+ * from 0 to size() - 1, so values of positions can be stored in flat arrays instead of hash maps.
+ * The white stones are ranked among all sets of their size, the black stones among the sets of the fields
+ * left empty by white (combinatorial number system). The player to move is the lowest bit of an index.
+ * With symmetry reduction, only the representative of every symmetry class (see Symmetry) gets an index,
+ * found by binary search in the sorted ranks of all representatives.
+ */
+public final class PositionIndex {
+    private static final long[][] BINOMIAL = new long[Topology.FIELD_COUNT + 1][Topology.FIELD_COUNT + 1];
+
+    static {
+        for (int n = 0; n <= Topology.FIELD_COUNT; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final int whiteCount;
+    private final int blackCount;
+    private final int whiteInventory;
+    private final int blackInventory;
+
+    // number of sets of black stones for every set of white stones
+    private final long blackSets;
+
+    // ranks of the representatives of all symmetry classes, null without symmetry reduction
+    private final int[] representatives;
+    // the first representative of every set of white stones, so only a few ranks have to be searched
+    private final int[] whiteStarts;
+    private final long size;
+
+    public PositionIndex(int whiteCount, int blackCount, boolean symmetric) {
+        this(whiteCount, blackCount, 0, 0, symmetric);
+    }
+
+    /**
+     * @param whiteCount The number of white stones on the grid
+     * @param blackCount The number of black stones on the grid
+     * @param symmetric Whether only one position per symmetry class is indexed
+     */
+    public PositionIndex(int whiteCount, int blackCount, int whiteInventory, int blackInventory, boolean symmetric) {
+        if (whiteCount < 0 || blackCount < 0 || whiteCount + blackCount > Topology.FIELD_COUNT)
+            throw new IllegalArgumentException("There is no room for " + whiteCount + " white and " + blackCount + " black stones");
+
+        this.whiteCount = whiteCount;
+        this.blackCount = blackCount;
+        this.whiteInventory = whiteInventory;
+        this.blackInventory = blackInventory;
+
+        blackSets = binomial(Topology.FIELD_COUNT - whiteCount, blackCount);
+        long stoneSets = binomial(Topology.FIELD_COUNT, whiteCount) * blackSets;
+
+        if (!symmetric) {
+            representatives = null;
+            whiteStarts = null;
+            size = 2 * stoneSets;
+            return;
+        }
+        if (stoneSets > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many positions to reduce by symmetry");
+
+        representatives = findRepresentatives((int) stoneSets);
+        size = 2L * representatives.length;
+
+        whiteStarts = new int[(int) binomial(Topology.FIELD_COUNT, whiteCount) + 1];
+        for (int whiteRank = 0, i = 0; whiteRank < whiteStarts.length; whiteRank++) {
+            while (i < representatives.length && representatives[i] < whiteRank * blackSets) i++;
+            whiteStarts[whiteRank] = i;
+        }
+    }
+
+    /**
+     * Walks through all sets of stones in the order of their ranks and keeps the representatives,
+     * so the ranks are sorted.
+     */
+    private int[] findRepresentatives(int stoneSets) {
+        int[] found = new int[stoneSets / Symmetry.COUNT + 64];
+        int count = 0;
+
+        int rank = 0;
+        int white = first(whiteCount);
+        for (long whiteRank = 0; whiteRank < binomial(Topology.FIELD_COUNT, whiteCount); whiteRank++, white = next(white)) {
+            int free = Topology.ALL_FIELDS & ~white;
+            int black = first(blackCount);
+            for (long blackRank = 0; blackRank < blackSets; blackRank++, black = next(black), rank++) {
+                int stones = deposit(black, free);
+                if (Symmetry.canonical(white, stones) == Symmetry.pack(white, stones)) {
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = rank;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getWhiteCount() {
+        return whiteCount;
+    }
+
+    public int getBlackCount() {
+        return blackCount;
+    }
+
+    public boolean isSymmetric() {
+        return representatives != null;
+    }
+
+    /**
+     * @return the index of the given position (or of the representative of its symmetry class),
+     * -1 if the number of stones does not match
+     */
+    public long indexOf(int whiteStones, int blackStones, boolean colourToMove) {
+        if (Integer.bitCount(whiteStones) != whiteCount || Integer.bitCount(blackStones) != blackCount
+                || (whiteStones & blackStones) != 0) {
+            return -1;
+        }
+
+        long rank;
+        if (representatives == null) {
+            rank = rank(whiteStones, blackStones);
+        } else {
+            int symmetry = Symmetry.canonicalSymmetry(whiteStones, blackStones);
+            int white = Symmetry.transform(symmetry, whiteStones);
+            int whiteRank = (int) rank(white);
+            rank = Arrays.binarySearch(representatives, whiteStarts[whiteRank], whiteStarts[whiteRank + 1],
+                    (int) rank(white, Symmetry.transform(symmetry, blackStones)));
+        }
+        return 2 * rank + (colourToMove == GameInterface.COLOUR_WHITE ? 0 : 1);
+    }
+
+    /**
+     * @return the index of the position of the given game, -1 if the stones on the grid or in the inventories
+     * do not match or a mill has been closed and no stone has been removed yet
+     */
+    public long indexOf(Game game) {
+        if (game.isThereAMill()
+                || game.getStonesInInventory(GameInterface.COLOUR_WHITE) != whiteInventory
+                || game.getStonesInInventory(GameInterface.COLOUR_BLACK) != blackInventory) {
+            return -1;
+        }
+        return indexOf(game.getStones(GameInterface.COLOUR_WHITE), game.getStones(GameInterface.COLOUR_BLACK), game.getCurrentPlayer());
+    }
+
+    public int getWhiteStones(long index) {
+        return unrank(whiteCount, getRank(index) / blackSets);
+    }
+
+    public int getBlackStones(long index) {
+        long rank = getRank(index);
+        int white = unrank(whiteCount, rank / blackSets);
+        return deposit(unrank(blackCount, rank % blackSets), Topology.ALL_FIELDS & ~white);
+    }
+
+    public boolean getColourToMove(long index) {
+        return (index & 1) == 0 ? GameInterface.COLOUR_WHITE : GameInterface.COLOUR_BLACK;
+    }
+
+    private long getRank(long index) {
+        return representatives == null ? index >>> 1 : representatives[(int) (index >>> 1)];
+    }
+
+    private long rank(int whiteStones, int blackStones) {
+        return rank(whiteStones) * blackSets + rank(compress(blackStones, Topology.ALL_FIELDS & ~whiteStones));
+    }
+
+    public static long binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * @return the rank of a set of fields among all sets of its size, in the order of their bit masks
+     */
+    public static long rank(int mask) {
+        long rank = 0;
+        for (int k = 1; mask != 0; k++) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][k];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * @return the set of k fields with the given rank
+     */
+    public static int unrank(int k, long rank) {
+        int mask = 0;
+        for (int n = Topology.FIELD_COUNT - 1; k > 0; n--) {
+            if (BINOMIAL[n][k] <= rank) {
+                rank -= BINOMIAL[n][k];
+                mask |= 1 << n;
+                k--;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Moves the bits of the given fields, which have to be part of free, to the positions of the free fields,
+     * e.g. the lowest free field becomes bit 0.
+     */
+    private static int compress(int mask, int free) {
+        int compressed = 0;
+        for (; mask != 0; mask &= mask - 1) {
+            compressed |= 1 << Integer.bitCount(free & (Integer.lowestOneBit(mask) - 1));
+        }
+        return compressed;
+    }
+
+    /**
+     * Reverses compress.
+     */
+    private static int deposit(int compressed, int free) {
+        int mask = 0;
+        for (; free != 0 && compressed != 0; free &= free - 1, compressed >>>= 1) {
+            if ((compressed & 1) != 0) mask |= Integer.lowestOneBit(free);
+        }
+        return mask;
+    }
+
+    private static int first(int k) {
+        return (1 << k) - 1;
+    }
+
+    /**
+     * @return the next larger mask with the same number of bits
+     */
+    private static int next(int mask) {
+        if (mask == 0) return 0;
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return ripple | (((mask ^ ripple) >>> 2) / lowest);
+    }
+}
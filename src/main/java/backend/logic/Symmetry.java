@@ -0,0 +1,149 @@
+package backend.logic;
+
+/**
+ * The 16 symmetries of the board: the 8 rotations and reflections, each with or without swapping
+ * the inner and the outer ring. Every symmetry maps fields, adjacency and mills onto themselves,
+ * so positions of one symmetry class have the same value and the same moves (transformed).
+ * Symmetry 0 is the identity. Bit masks are transformed with lookup tables, one per byte of the mask.
+ */
+public final class Symmetry {
+    public static final int COUNT = 16;
+
+    private static final int[][] FIELDS = new int[COUNT][Topology.FIELD_COUNT];
+    private static final int[] INVERSE = new int[COUNT];
+
+    // transformed bits of every value of the three bytes of a mask, at [(symmetry * 3 + byte) * 256 + value]
+    private static final int[] MASKS = new int[COUNT * 3 * 256];
+
+    static {
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int index = 0; index < Topology.FIELD_COUNT; index++) {
+                FIELDS[symmetry][index] = transformPosition(symmetry, index);
+            }
+            for (int b = 0; b < 3; b++) {
+                for (int value = 0; value < 256; value++) {
+                    int mask = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        if ((value & (1 << bit)) != 0) mask |= 1 << FIELDS[symmetry][8 * b + bit];
+                    }
+                    MASKS[(symmetry * 3 + b) * 256 + value] = mask;
+                }
+            }
+        }
+
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int inverse = 0; inverse < COUNT; inverse++) {
+                if (undoes(inverse, symmetry)) INVERSE[symmetry] = inverse;
+            }
+        }
+    }
+
+    private Symmetry() {}
+
+    /**
+     * Swaps the rings (symmetries 8 to 15), reflects at the vertical axis (bit 2 of the symmetry)
+     * and rotates clockwise by 90 degrees (as often as the lowest two bits say), in this order.
+     */
+    private static int transformPosition(int symmetry, int index) {
+        int dx = Topology.getPosX(index) - 3;
+        int dy = Topology.getPosY(index) - 3;
+
+        if (symmetry >= 8) {
+            int ring = Math.max(Math.abs(dx), Math.abs(dy));
+            dx = dx / ring * (4 - ring);
+            dy = dy / ring * (4 - ring);
+        }
+        if ((symmetry & 4) != 0) dx = -dx;
+        for (int i = 0; i < (symmetry & 3); i++) {
+            int x = dx;
+            dx = -dy;
+            dy = x;
+        }
+        return Topology.indexOf(dx + 3, dy + 3);
+    }
+
+    private static boolean undoes(int inverse, int symmetry) {
+        for (int index = 0; index < Topology.FIELD_COUNT; index++) {
+            if (FIELDS[inverse][FIELDS[symmetry][index]] != index) return false;
+        }
+        return true;
+    }
+
+    public static int transformField(int symmetry, int index) {
+        return FIELDS[symmetry][index];
+    }
+
+    /**
+     * @return the bit mask of the fields the given fields are mapped to
+     */
+    public static int transform(int symmetry, int mask) {
+        int base = symmetry * 3 * 256;
+        return MASKS[base + (mask & 0xFF)] | MASKS[base + 256 + ((mask >>> 8) & 0xFF)] | MASKS[base + 512 + (mask >>> 16)];
+    }
+
+    /**
+     * @return the given move (see Move) with all of its fields transformed
+     */
+    public static int transformMove(int symmetry, int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int removed = Move.getRemoved(move);
+
+        int transformed = to == Move.NONE ? Move.remove(FIELDS[symmetry][removed])
+                : from == Move.NONE ? Move.place(FIELDS[symmetry][to])
+                : Move.move(FIELDS[symmetry][from], FIELDS[symmetry][to]);
+        return to != Move.NONE && removed != Move.NONE ? Move.withRemoval(transformed, FIELDS[symmetry][removed]) : transformed;
+    }
+
+    /**
+     * @return the symmetry, which undoes the given one
+     */
+    public static int inverse(int symmetry) {
+        return INVERSE[symmetry];
+    }
+
+    /**
+     * Finds the symmetry, which maps the given stones onto the representative of their symmetry class:
+     * the transformed position with the smallest packed value (see pack).
+     */
+    public static int canonicalSymmetry(int whiteStones, int blackStones) {
+        int best = 0;
+        long bestPosition = pack(whiteStones, blackStones);
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long position = pack(transform(symmetry, whiteStones), transform(symmetry, blackStones));
+            if (position < bestPosition) {
+                best = symmetry;
+                bestPosition = position;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the representative of the symmetry class of the given stones, packed (see pack)
+     */
+    public static long canonical(int whiteStones, int blackStones) {
+        int symmetry = canonicalSymmetry(whiteStones, blackStones);
+        return pack(transform(symmetry, whiteStones), transform(symmetry, blackStones));
+    }
+
+    /**
+     * @return the number of different positions in the symmetry class of the given stones (1 to COUNT)
+     */
+    public static int getOrbitSize(int whiteStones, int blackStones) {
+        int unchanged = 0;
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            if (transform(symmetry, whiteStones) == whiteStones && transform(symmetry, blackStones) == blackStones) {
+                unchanged++;
+            }
+        }
+        return COUNT / unchanged;
+    }
+
+    /**
+     * @return both bit masks in one long, white in the lower and black in the upper half
+     */
+    public static long pack(int whiteStones, int blackStones) {
+        return whiteStones & 0xFFFFFFFFL | (long) blackStones << 32;
+    }
+}
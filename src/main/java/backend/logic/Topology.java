@@ -0,0 +1,179 @@
+package backend.logic;
+
+/**
+ * The immutable layout of a nine men's morris board, computed once per JVM and shared by every grid.
+ * The 24 fields are numbered row by row from the top left (0) to the bottom right (23).
+ * Sets of fields are given as bit masks with bit i standing for the field with index i.
+ */
+public final class Topology {
+    public static final int FIELD_COUNT = 24;
+    public static final int MILL_COUNT = 16;
+
+    /**
+     * Every field is part of exactly one horizontal and one vertical mill
+     */
+    public static final int MILLS_PER_FIELD = 2;
+
+    public static final int ALL_FIELDS = (1 << FIELD_COUNT) - 1;
+
+    // index of the field at [y][x], -1 if there is no field at this position
+    private static final int[][] INDEX = new int[Grid.LIMIT_Y][Grid.LIMIT_X];
+    private static final int[] POS_X = new int[FIELD_COUNT];
+    private static final int[] POS_Y = new int[FIELD_COUNT];
+
+    private static final int[] ADJACENT_MASK = new int[FIELD_COUNT];
+    private static final int[][] ADJACENT_FIELDS = new int[FIELD_COUNT][];
+
+    private static final int[] MILLS = new int[MILL_COUNT];
+    private static final int[][] MILLS_OF_FIELD = new int[FIELD_COUNT][MILLS_PER_FIELD];
+
+    static {
+        int index = 0;
+        for (int y = 0; y < Grid.LIMIT_Y; y++) {
+            for (int x = 0; x < Grid.LIMIT_X; x++) {
+                if (isFieldPosition(x, y)) {
+                    INDEX[y][x] = index;
+                    POS_X[index] = x;
+                    POS_Y[index] = y;
+                    index++;
+                } else {
+                    INDEX[y][x] = -1;
+                }
+            }
+        }
+
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            int adjacent = nextField(i, 1, 0) | nextField(i, -1, 0) | nextField(i, 0, 1) | nextField(i, 0, -1);
+            ADJACENT_MASK[i] = adjacent;
+            ADJACENT_FIELDS[i] = new int[Integer.bitCount(adjacent)];
+            for (int n = 0; adjacent != 0; n++) {
+                ADJACENT_FIELDS[i][n] = Integer.numberOfTrailingZeros(adjacent);
+                adjacent &= adjacent - 1;
+            }
+        }
+
+        int count = collectMills(0, true);
+        collectMills(count, false);
+
+        int[] millsFound = new int[FIELD_COUNT];
+        for (int mill : MILLS) {
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if ((mill & (1 << i)) != 0) {
+                    MILLS_OF_FIELD[i][millsFound[i]++] = mill;
+                }
+            }
+        }
+    }
+
+    private Topology() {}
+
+    /**
+     * Same rule as Grid.checkValidityOfFieldPosition, but without bounds check and exception.
+     */
+    private static boolean isFieldPosition(int posX, int posY) {
+        if (posX > Math.floorDiv(Grid.LIMIT_X, 2))
+            posX = (Grid.LIMIT_X - 1 - posX) % (Grid.LIMIT_X - 1);
+
+        if (posY > Math.floorDiv(Grid.LIMIT_Y, 2))
+            posY = (Grid.LIMIT_Y - 1 - posY) % (Grid.LIMIT_Y - 1);
+
+        return (posX != 0 || (posY != 1 && posY != 2)) &&
+                (posX != 1 || (posY != 0 && posY != 2)) &&
+                (posX != 2 || (posY != 0 && posY != 1)) &&
+                (posX != 3 || posY != 3);
+    }
+
+    /**
+     * Walks from a field into one direction until the next field is found. The center of the grid is not crossed.
+     * @return the bit of the next field or 0 if there is none
+     */
+    private static int nextField(int index, int stepX, int stepY) {
+        int x = POS_X[index] + stepX;
+        int y = POS_Y[index] + stepY;
+        while (x >= 0 && x < Grid.LIMIT_X && y >= 0 && y < Grid.LIMIT_Y) {
+            if (x == 3 && y == 3) return 0;
+            if (INDEX[y][x] >= 0) return 1 << INDEX[y][x];
+            x += stepX;
+            y += stepY;
+        }
+        return 0;
+    }
+
+    /**
+     * Every row and column holds three fields, which form a mill.
+     * Only the middle row and column hold six fields (split by the center), which form two mills.
+     */
+    private static int collectMills(int count, boolean rows) {
+        for (int line = 0; line < Grid.LIMIT_Y; line++) {
+            int mill = 0;
+            int size = 0;
+            for (int step = 0; step < Grid.LIMIT_X; step++) {
+                int index = rows ? INDEX[line][step] : INDEX[step][line];
+                if (index < 0) continue;
+
+                mill |= 1 << index;
+                if (++size == 3) {
+                    MILLS[count++] = mill;
+                    mill = 0;
+                    size = 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the index of the field at a grid position.
+     * @return the index (0 to 23) or -1 if there is no field at this position or it is out of bounds
+     */
+    public static int indexOf(int posX, int posY) {
+        if (posX >= Grid.LIMIT_X || posY >= Grid.LIMIT_Y || posX < 0 || posY < 0) return -1;
+        return INDEX[posY][posX];
+    }
+
+    public static int getPosX(int index) {
+        return POS_X[index];
+    }
+
+    public static int getPosY(int index) {
+        return POS_Y[index];
+    }
+
+    /**
+     * @return the bit mask of all fields adjacent to the given field
+     */
+    public static int getAdjacentMask(int index) {
+        return ADJACENT_MASK[index];
+    }
+
+    /**
+     * @return the number of fields adjacent to the given field (2 to 4)
+     */
+    public static int getAdjacentCount(int index) {
+        return ADJACENT_FIELDS[index].length;
+    }
+
+    /**
+     * @param n which of the adjacent fields, from 0 to getAdjacentCount(index) - 1
+     * @return the index of the n-th field adjacent to the given field
+     */
+    public static int getAdjacentField(int index, int n) {
+        return ADJACENT_FIELDS[index][n];
+    }
+
+    /**
+     * @param mill which mill, from 0 to MILL_COUNT - 1
+     * @return the bit mask of the mill's three fields
+     */
+    public static int getMill(int mill) {
+        return MILLS[mill];
+    }
+
+    /**
+     * @param n which of the mills, from 0 to MILLS_PER_FIELD - 1
+     * @return the bit mask of the n-th mill the given field is part of
+     */
+    public static int getMillOfField(int index, int n) {
+        return MILLS_OF_FIELD[index][n];
+    }
+}
@@ -0,0 +1,103 @@
+package backend.logic;
+
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for every part of a game's state. The key of a position is the XOR of the keys
+ * of its parts, so a move only has to XOR the keys of the parts it changes.
+ * The keys are generated from a fixed seed, so position keys are the same in every JVM and may be stored.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[] WHITE_STONES = new long[Topology.FIELD_COUNT];
+    private static final long[] BLACK_STONES = new long[Topology.FIELD_COUNT];
+
+    private static final long[] WHITE_INVENTORY = new long[10];
+    private static final long[] BLACK_INVENTORY = new long[10];
+
+    private static final long[] PHASES = new long[GamePhase.values().length];
+
+    private static final long WHITE_JUMPS;
+    private static final long BLACK_JUMPS;
+
+    /**
+     * Part of the key while a mill has been closed and no stone has been removed yet
+     */
+    public static final long MILL_PENDING;
+
+    /**
+     * Part of the key while white made the last move (so it is black's turn)
+     */
+    public static final long WHITE_MOVED_LAST;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        for (int i = 0; i < Topology.FIELD_COUNT; i++) {
+            WHITE_STONES[i] = random.nextLong();
+            BLACK_STONES[i] = random.nextLong();
+        }
+        for (int i = 0; i < WHITE_INVENTORY.length; i++) {
+            WHITE_INVENTORY[i] = random.nextLong();
+            BLACK_INVENTORY[i] = random.nextLong();
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            PHASES[i] = random.nextLong();
+        }
+
+        WHITE_JUMPS = random.nextLong();
+        BLACK_JUMPS = random.nextLong();
+        MILL_PENDING = random.nextLong();
+        WHITE_MOVED_LAST = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    public static long stone(boolean colour, int index) {
+        return colour == GameInterface.COLOUR_WHITE ? WHITE_STONES[index] : BLACK_STONES[index];
+    }
+
+    public static long inventory(boolean colour, int stones) {
+        return colour == GameInterface.COLOUR_WHITE ? WHITE_INVENTORY[stones] : BLACK_INVENTORY[stones];
+    }
+
+    public static long jumpPhase(boolean colour) {
+        return colour == GameInterface.COLOUR_WHITE ? WHITE_JUMPS : BLACK_JUMPS;
+    }
+
+    public static long phase(GamePhase phase) {
+        return PHASES[phase.ordinal()];
+    }
+
+    /**
+     * @return the XOR of the keys of all stones in the given bit mask
+     */
+    public static long stones(boolean colour, int stones) {
+        long key = 0;
+        for (; stones != 0; stones &= stones - 1) {
+            key ^= stone(colour, Integer.numberOfTrailingZeros(stones));
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     */
+    public static long hash(int whiteStones, int blackStones, GamePhase phase, boolean lastMoveByColour,
+                            boolean thereIsAMill, int whiteStonesInInventory, int blackStonesInInventory,
+                            boolean whiteInJumpPhase, boolean blackInJumpPhase) {
+        long key = stones(GameInterface.COLOUR_WHITE, whiteStones) ^ stones(GameInterface.COLOUR_BLACK, blackStones);
+        key ^= phase(phase);
+        key ^= inventory(GameInterface.COLOUR_WHITE, whiteStonesInInventory);
+        key ^= inventory(GameInterface.COLOUR_BLACK, blackStonesInInventory);
+        if (lastMoveByColour == GameInterface.COLOUR_WHITE) key ^= WHITE_MOVED_LAST;
+        if (thereIsAMill) key ^= MILL_PENDING;
+        if (whiteInJumpPhase) key ^= WHITE_JUMPS;
+        if (blackInJumpPhase) key ^= BLACK_JUMPS;
+        return key;
+    }
+}
@@ -24,6 +24,8 @@ public class Game {
     private boolean whiteInJumpPhase = false;
     private boolean blackInJumpPhase = false;
 
+    private boolean draw = false;
+
     private boolean lastMoveByColour;
     private boolean myColour;
 
@@ -137,6 +139,10 @@ public class Game {
         return currentPhase;
     }
 
+    public boolean isDraw() {
+        return draw;
+    }
+
     public String getPhaseAsString() {
         return switch (getPhase()) {
             case GAME_OVER -> "Game Over!";
@@ -192,6 +198,8 @@ public class Game {
 
             whiteInJumpPhase = gameStatus.whiteInJumpPhase;
             blackInJumpPhase = gameStatus.blackInJumpPhase;
+
+            draw = gameStatus.isDraw;
         }
     }
 }
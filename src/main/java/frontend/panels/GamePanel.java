@@ -380,6 +380,31 @@ public class GamePanel extends JPanel implements ActionListener {
                                 game.swapMoves();
                             }
                         }
+
+                        case Hint -> setErrorMessage("Hint: " + arguments[0]);
+
+                        case Analysis -> {
+                            if (arguments.length == 0) {
+                                setErrorMessage("You have not finished a game yet.");
+                            } else if (arguments[0] == null) {
+                                setErrorMessage("The analysis of your last game is not ready yet.");
+                            } else {
+                                GameAnalysis analysis = (GameAnalysis) arguments[0];
+                                setErrorMessage("Analysis: you made " + analysis.getBlunders(game.getMyColour())
+                                        + " blunders, your opponent " + analysis.getBlunders(!game.getMyColour()) + ".");
+
+                                JTextArea moves = new JTextArea(analysis.toString(), 8, 40);
+                                moves.setLineWrap(true);
+                                moves.setWrapStyleWord(true);
+                                moves.setEditable(false);
+                                new Thread(() -> JOptionPane.showMessageDialog(
+                                        null,
+                                        new JScrollPane(moves),
+                                        "Analysis of your last game (?? marks a blunder, the best move follows)",
+                                        JOptionPane.INFORMATION_MESSAGE
+                                )).start();
+                            }
+                        }
                     }
                 } catch (IOException ignored) {}
 
@@ -492,6 +517,38 @@ public class GamePanel extends JPanel implements ActionListener {
             }
         });
 
+        // ask the server for the analysis of the last game
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('a'), "analysis");
+        getActionMap().put("analysis", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (getClientMode() != ClientMode.Game) return;
+
+                try {
+                    client.emit(new GameEvent(GameEventMethod.Analysis, -1, null));
+                } catch (IOException ex) {
+                    setErrorMessage("An error occurred while asking for the analysis: " + ex);
+                    rerender();
+                }
+            }
+        });
+
+        // ask the server for a move suggestion
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('h'), "hint");
+        getActionMap().put("hint", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (getClientMode() != ClientMode.Game) return;
+
+                try {
+                    client.emit(new GameEvent(GameEventMethod.Hint, -1, null));
+                } catch (IOException ex) {
+                    setErrorMessage("An error occurred while asking for a hint: " + ex);
+                    rerender();
+                }
+            }
+        });
+
         // Settings for UI elements
         lblUsername.setHorizontalAlignment(JLabel.CENTER);
         lblPassword.setHorizontalAlignment(JLabel.CENTER);
@@ -685,6 +742,9 @@ public class GamePanel extends JPanel implements ActionListener {
                     100,
                     40
             );
+            g.drawString(game.getPhase() == GamePhase.GAME_OVER
+                    ? "Press A for the analysis"
+                    : "Press H for a hint", 100, 60);
         }
 
         if (game.isItMyTurn()) {
@@ -727,7 +787,9 @@ public class GamePanel extends JPanel implements ActionListener {
 
         if (game.getPhase() == GamePhase.GAME_OVER) {
             phase = "Game Over" ;
-            text = "GAME OVER LOL. "
+            text = game.isDraw()
+                    ? "GAME OVER LOL. It's a draw."
+                    : "GAME OVER LOL. "
                     + game.getOtherPlayerAsString()
                     + " won.";
         } else if (game.isColourInJumpPhase(game.getMyColour())) {
@@ -0,0 +1,90 @@
+package interfaces;
+
+import java.io.Serializable;
+
+/**
+ * The analysis of a finished game, sent to the clients on request: for every ply the move played and the
+ * best move found by the engine, the score of the best move and the score lost by the move played, both
+ * from the view of the player, who made it. A move losing at least BLUNDER_LOSS is a blunder.
+ * Plies alternate between the players, a move closing a mill includes the removal.
+ */
+public class GameAnalysis implements Serializable {
+    /**
+     * One and a half stones
+     */
+    public static final int BLUNDER_LOSS = 150;
+
+    private final boolean startingPlayer;
+    private final String[] moves;
+    private final String[] bestMoves;
+    private final int[] scores;
+    private final int[] losses;
+
+    public GameAnalysis(boolean startingPlayer, String[] moves, String[] bestMoves, int[] scores, int[] losses) {
+        if (bestMoves.length != moves.length || scores.length != moves.length || losses.length != moves.length)
+            throw new IllegalArgumentException("Every ply needs a best move, a score and a loss");
+
+        this.startingPlayer = startingPlayer;
+        this.moves = moves;
+        this.bestMoves = bestMoves;
+        this.scores = scores;
+        this.losses = losses;
+    }
+
+    public boolean getStartingPlayer() {
+        return startingPlayer;
+    }
+
+    public int getPlies() {
+        return moves.length;
+    }
+
+    /**
+     * @return the colour of the player, who made the given ply
+     */
+    public boolean getPlayer(int ply) {
+        return (ply & 1) == 0 == startingPlayer;
+    }
+
+    public String getMove(int ply) {
+        return moves[ply];
+    }
+
+    public String getBestMove(int ply) {
+        return bestMoves[ply];
+    }
+
+    public int getScore(int ply) {
+        return scores[ply];
+    }
+
+    public int getLoss(int ply) {
+        return losses[ply];
+    }
+
+    public boolean isBlunder(int ply) {
+        return losses[ply] >= BLUNDER_LOSS;
+    }
+
+    public int getBlunders(boolean colour) {
+        int blunders = 0;
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (getPlayer(ply) == colour && isBlunder(ply)) blunders++;
+        }
+        return blunders;
+    }
+
+    /**
+     * @return the moves with blunders marked by ?? and followed by the best move in parentheses
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (ply > 0) builder.append(' ');
+            builder.append(moves[ply]);
+            if (isBlunder(ply)) builder.append("?? (").append(bestMoves[ply]).append(')');
+        }
+        return builder.toString();
+    }
+}
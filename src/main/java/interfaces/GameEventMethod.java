@@ -17,6 +17,8 @@ public enum GameEventMethod {
     PlaceStone,
     RemoveStone,
     MoveStone,
+    Hint,
+    Analysis,
 
     EnterQuickMatchQueue,
     LeaveQuickMatchQueue,
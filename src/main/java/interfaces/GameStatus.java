@@ -16,7 +16,10 @@ public class GameStatus implements Serializable {
     public final boolean whiteInJumpPhase;
     public final boolean blackInJumpPhase;
 
-    public GameStatus(GamePhase currentPhase, boolean isThereAMill, int whiteStonesInInventory, int blackStonesInInventory, int whiteStonesOnTheGrid, int blackStonesOnTheGrid, boolean whiteInJumpPhase, boolean blackInJumpPhase) {
+    // the game is over without a winner, see Game.isDraw
+    public final boolean isDraw;
+
+    public GameStatus(GamePhase currentPhase, boolean isThereAMill, int whiteStonesInInventory, int blackStonesInInventory, int whiteStonesOnTheGrid, int blackStonesOnTheGrid, boolean whiteInJumpPhase, boolean blackInJumpPhase, boolean isDraw) {
         this.currentPhase = currentPhase;
         this.isThereAMill = isThereAMill;
         this.whiteStonesInInventory = whiteStonesInInventory;
@@ -25,5 +28,6 @@ public class GameStatus implements Serializable {
         this.blackStonesOnTheGrid = blackStonesOnTheGrid;
         this.whiteInJumpPhase = whiteInJumpPhase;
         this.blackInJumpPhase = blackInJumpPhase;
+        this.isDraw = isDraw;
     }
 }
@@ -0,0 +1,92 @@
+import backend.engine.AnalysisService;
+import backend.engine.EnginePolicy;
+import backend.engine.EngineScheduler;
+import backend.engine.EngineScheduler.Priority;
+import backend.engine.GameAnalyzer;
+import backend.engine.Policy;
+import backend.engine.RandomPolicy;
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameAnalysis;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServiceTest {
+    private static final int MAX_PLIES = 120;
+
+    /**
+     * Plays a game of white with the given policy against black with the other one.
+     */
+    private static int[] play(Policy white, Policy black, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Game game = Game.startedBy(GameInterface.COLOUR_WHITE);
+        List<Integer> moves = new ArrayList<>();
+        while (game.getPhase() != GamePhase.GAME_OVER && moves.size() < MAX_PLIES) {
+            Policy policy = game.getActingPlayer() == GameInterface.COLOUR_WHITE ? white : black;
+            int move = policy.chooseMove(game, random);
+            game.makeMove(move);
+            moves.add(move);
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void blundersOfRandomMoves() {
+        int[] moves = play(new EnginePolicy(3), new RandomPolicy(), 5);
+        GameAnalysis analysis = new GameAnalyzer().analyze(GameInterface.COLOUR_WHITE, moves, 1_000);
+
+        assertEquals(moves.length, analysis.getPlies());
+        for (int ply = 0; ply < moves.length; ply++) {
+            assertEquals(Move.toString(moves[ply]), analysis.getMove(ply));
+            assertEquals(ply % 2 == 0, analysis.getPlayer(ply) == GameInterface.COLOUR_WHITE);
+            assertTrue(analysis.getLoss(ply) >= 0);
+        }
+        assertTrue(analysis.getBlunders(GameInterface.COLOUR_BLACK) > analysis.getBlunders(GameInterface.COLOUR_WHITE));
+        assertTrue(analysis.toString().contains("??"));
+    }
+
+    @Test
+    void illegalMove() {
+        int[] moves = {Move.place(0), Move.place(0)};
+        assertThrows(IllegalArgumentException.class, () -> new GameAnalyzer().analyze(GameInterface.COLOUR_BLACK, moves, 10));
+    }
+
+    @Test
+    void queueIsBounded() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            CountDownLatch release = new CountDownLatch(1);
+            scheduler.submit(Priority.INTERACTIVE, 1_000, 10_000, millis -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+
+            AnalysisService service = new AnalysisService(scheduler, new GameAnalyzer(), 1, 1, 16);
+            int[] moves = play(new RandomPolicy(), new RandomPolicy(), 7);
+            // the first game is taken into a batch, the second waits, the third does not fit
+            assertTrue(service.submit(1, GameInterface.COLOUR_WHITE, moves));
+            assertTrue(service.submit(2, GameInterface.COLOUR_WHITE, moves));
+            assertFalse(service.submit(3, GameInterface.COLOUR_WHITE, moves));
+            assertEquals(1, service.getDropped());
+            assertNull(service.getResult(1));
+
+            release.countDown();
+            for (int i = 0; i < 200 && service.getAnalyzed() < 2; i++) Thread.sleep(50);
+            assertEquals(2, service.getAnalyzed());
+            assertEquals(moves.length, service.getResult(1).getPlies());
+            assertNotNull(service.getResult(2));
+            assertNull(service.getResult(3));
+        }
+    }
+}
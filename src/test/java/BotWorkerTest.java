@@ -0,0 +1,201 @@
+import backend.Server;
+import backend.engine.EngineScheduler;
+import backend.engine.EngineScheduler.Priority;
+import backend.engine.RandomPolicy;
+import backend.handlers.BotWorker;
+import backend.handlers.ServerWorker;
+import backend.helpers.Match;
+import backend.logic.Game;
+import interfaces.GameEvent;
+import interfaces.GameEventMethod;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotWorkerTest {
+    private static final long MOVE_MILLIS = 10;
+
+    /**
+     * Records the events emitted to a worker without a connection.
+     */
+    private static class RecordingWorker extends ServerWorker {
+        private final List<GameEvent> events = new CopyOnWriteArrayList<>();
+
+        RecordingWorker(Server server) {
+            super(server);
+        }
+
+        @Override
+        public void run() {}
+
+        @Override
+        public void emit(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void returnToLobby() {
+            setMatch(null);
+        }
+
+        @Override
+        public void addToPool() {}
+    }
+
+    private static class RecordingBot extends BotWorker {
+        private final List<GameEvent> events = new CopyOnWriteArrayList<>();
+
+        RecordingBot(EngineScheduler scheduler, long seed) {
+            super(null, new RandomPolicy(), scheduler, MOVE_MILLIS, seed);
+        }
+
+        @Override
+        public synchronized void emit(GameEvent event) {
+            events.add(event);
+            super.emit(event);
+        }
+    }
+
+    @Test
+    void botsPlayEachOther() throws IllegalMoveException, InterruptedException {
+        RecordingBot bot1;
+        RecordingBot bot2;
+        Match match;
+        try (EngineScheduler scheduler = new EngineScheduler(2, 16)) {
+            bot1 = new RecordingBot(scheduler, 1);
+            bot2 = new RecordingBot(scheduler, 2);
+            match = new Match(bot1, bot2);
+            for (int i = 0; i < 200 && (bot1.isInMatch() || bot2.isInMatch()); i++) Thread.sleep(50);
+        }
+
+        assertEquals(GamePhase.GAME_OVER, match.getGame().getPhase());
+        assertFalse(bot1.isInMatch());
+        assertFalse(bot2.isInMatch());
+
+        // apart from the start event with their colour, both bots get the same events
+        assertEquals(bot1.events.subList(1, bot1.events.size()), bot2.events.subList(1, bot2.events.size()));
+        Set<Integer> placed = new HashSet<>();
+        for (GameEvent event : bot1.events) {
+            assertNotEquals(GameEventMethod.IllegalMove, event.getMethod());
+            if (event.getMethod() == GameEventMethod.PlaceStone) {
+                // every stone is placed with its own sprite
+                assertTrue(placed.add(event.getReference()));
+                assertTrue(event.getReference() >= 0 && event.getReference() < 18);
+            } else if (event.getMethod() == GameEventMethod.MoveStone || event.getMethod() == GameEventMethod.RemoveStone) {
+                assertTrue(placed.contains(event.getReference()));
+            }
+        }
+        assertEquals(GameEventMethod.GameOver, bot1.events.get(bot1.events.size() - 1).getMethod());
+
+        // the moves recorded by the match lead to the same position
+        Game replay = Game.startedBy(match.getStartingPlayer());
+        for (int move : match.getMoves()) {
+            replay.makeMove(move);
+        }
+        assertEquals(match.getGame().getPositionKey(), replay.getPositionKey());
+    }
+
+    @Test
+    void referencesOfColour() throws IllegalMoveException, InterruptedException {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            RecordingWorker human = new RecordingWorker(null);
+            RecordingBot bot = new RecordingBot(scheduler, 3);
+            Match match = new Match(human, bot);
+
+            // only the bot moves, the human player never answers
+            for (int i = 0; i < 100 && match.getGame().getActingPlayer() == bot.getColour(); i++) Thread.sleep(50);
+            assertEquals(human.getColour(), match.getGame().getActingPlayer());
+
+            if (human.events.size() > 1) {
+                GameEvent placement = human.events.get(1);
+                assertEquals(GameEventMethod.PlaceStone, placement.getMethod());
+                assertEquals(bot.getColour() == GameInterface.COLOUR_WHITE ? 0 : 9, placement.getReference());
+            }
+        }
+    }
+
+    @Test
+    void retriesWhenRejected() throws IllegalMoveException, InterruptedException {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 1)) {
+            // one BOT task runs and another one waits, so the queue of the bots is full
+            CountDownLatch release = new CountDownLatch(1);
+            scheduler.submit(Priority.BOT, 1_000, 10_000, millis -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            while (scheduler.getActiveThreads() == 0) Thread.sleep(1);
+            scheduler.submit(Priority.BOT, 1_000, 10_000, millis -> null);
+
+            // the bot has to make the first move
+            RecordingWorker human;
+            RecordingBot bot;
+            Match match;
+            do {
+                human = new RecordingWorker(null);
+                bot = new RecordingBot(scheduler, 4);
+                match = new Match(human, bot);
+            } while (match.getGame().getActingPlayer() != bot.getColour());
+
+            Thread.sleep(200);
+            assertTrue(scheduler.getRejected(Priority.BOT) > 0);
+            // the bot did not play without the scheduler
+            assertEquals(1, human.events.size());
+
+            release.countDown();
+            for (int i = 0; i < 100 && human.events.size() < 2; i++) Thread.sleep(50);
+            assertEquals(GameEventMethod.PlaceStone, human.events.get(1).getMethod());
+        }
+    }
+
+    @Test
+    void waitingPlayerGetsBot() throws InterruptedException {
+        Server server = new Server(0, "mongodb://localhost", "test", 50);
+        RecordingWorker human = new RecordingWorker(server);
+        server.addToQuickMatchQueue(human);
+
+        for (int i = 0; i < 100 && !human.isInMatch(); i++) Thread.sleep(50);
+        assertTrue(human.isInMatch());
+        assertEquals(GameEventMethod.GameStart, human.events.get(0).getMethod());
+    }
+
+    @Test
+    void rejoiningRestartsWait() throws InterruptedException {
+        Server server = new Server(0, "mongodb://localhost", "test", 1_000);
+        RecordingWorker human = new RecordingWorker(server);
+        server.addToQuickMatchQueue(human);
+        Thread.sleep(600);
+        server.removeFromQuickMatchQueue(human);
+        server.addToQuickMatchQueue(human);
+
+        // the bot of the first wait would have come by now
+        Thread.sleep(600);
+        assertFalse(human.isInMatch());
+
+        for (int i = 0; i < 100 && !human.isInMatch(); i++) Thread.sleep(50);
+        assertTrue(human.isInMatch());
+    }
+
+    @Test
+    void noBotWhenDisabled() throws InterruptedException {
+        Server server = new Server(0, "mongodb://localhost", "test", 0);
+        RecordingWorker human = new RecordingWorker(server);
+        server.addToQuickMatchQueue(human);
+
+        Thread.sleep(200);
+        assertFalse(human.isInMatch());
+        assertTrue(human.events.isEmpty());
+    }
+}
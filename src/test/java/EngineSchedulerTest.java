@@ -0,0 +1,117 @@
+import backend.engine.EngineScheduler;
+import backend.engine.EngineScheduler.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineSchedulerTest {
+    /**
+     * Occupies the only thread of the given scheduler until the returned latch is counted down.
+     */
+    private static CountDownLatch block(EngineScheduler scheduler) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(Priority.INTERACTIVE, 1_000, 10_000, millis -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        while (scheduler.getActiveThreads() == 0) Thread.sleep(1);
+        return release;
+    }
+
+    @Test
+    void priorityAndDeadlineOrder() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            CountDownLatch release = block(scheduler);
+
+            List<String> order = new CopyOnWriteArrayList<>();
+            CompletableFuture<?> background = scheduler.submit(Priority.BACKGROUND, 10, 100, millis -> order.add("background"));
+            CompletableFuture<?> lateBot = scheduler.submit(Priority.BOT, 10, 5_000, millis -> order.add("late bot"));
+            CompletableFuture<?> urgentBot = scheduler.submit(Priority.BOT, 10, 1_000, millis -> order.add("urgent bot"));
+            CompletableFuture<?> hint = scheduler.submit(Priority.INTERACTIVE, 10, 5_000, millis -> order.add("hint"));
+            assertEquals(2, scheduler.getQueueDepth(Priority.BOT));
+
+            release.countDown();
+            CompletableFuture.allOf(background, lateBot, urgentBot, hint).get();
+            assertEquals(List.of("hint", "urgent bot", "late bot", "background"), order);
+            assertEquals(0, scheduler.getQueueDepth(Priority.BOT));
+        }
+    }
+
+    @Test
+    void sliceEndsAtDeadline() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            assertEquals(20L, scheduler.submit(Priority.BOT, 20, 10_000, millis -> millis).get());
+
+            long slice = scheduler.submit(Priority.BOT, 10_000, 200, millis -> millis).get();
+            assertTrue(slice <= 200 && slice >= EngineScheduler.MIN_SLICE_MILLIS);
+        }
+    }
+
+    @Test
+    void lateTasksStillRun() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            CountDownLatch release = block(scheduler);
+            CompletableFuture<Long> late = scheduler.submit(Priority.BOT, 1_000, 1, millis -> millis);
+            Thread.sleep(20);
+            release.countDown();
+
+            assertEquals(EngineScheduler.MIN_SLICE_MILLIS, late.get());
+            assertEquals(1, scheduler.getMissedDeadlines(Priority.BOT));
+            assertTrue(scheduler.getMaxWaitMillis(Priority.BOT) >= 20);
+            assertTrue(scheduler.getAverageWaitMillis(Priority.BOT) >= 20);
+        }
+    }
+
+    @Test
+    void fullQueueRejects() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 2)) {
+            CountDownLatch release = block(scheduler);
+            scheduler.submit(Priority.BACKGROUND, 10, 1_000, millis -> null);
+            scheduler.submit(Priority.BACKGROUND, 10, 1_000, millis -> null);
+            assertThrows(RejectedExecutionException.class, () -> scheduler.submit(Priority.BACKGROUND, 10, 1_000, millis -> null));
+            assertEquals(1, scheduler.getRejected(Priority.BACKGROUND));
+            assertEquals(2, scheduler.getQueueDepth(Priority.BACKGROUND));
+
+            // the other classes have their own queues
+            CompletableFuture<String> bot = scheduler.submit(Priority.BOT, 10, 1_000, millis -> "moved");
+            release.countDown();
+            assertEquals("moved", bot.get());
+        }
+    }
+
+    @Test
+    void failingTask() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            CompletableFuture<Object> failing = scheduler.submit(Priority.BOT, 10, 1_000, millis -> {
+                throw new IllegalStateException("broken");
+            });
+            assertThrows(ExecutionException.class, failing::get);
+
+            // the thread survives
+            assertEquals(1, scheduler.submit(Priority.BOT, 10, 1_000, millis -> 1).get());
+        }
+    }
+
+    @Test
+    void closed() throws InterruptedException {
+        EngineScheduler scheduler = new EngineScheduler(1, 16);
+        CountDownLatch release = block(scheduler);
+        CompletableFuture<Object> waiting = scheduler.submit(Priority.BACKGROUND, 10, 1_000, millis -> null);
+        scheduler.close();
+        release.countDown();
+
+        assertTrue(waiting.isCancelled());
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(Priority.BOT, 10, 1_000, millis -> null));
+    }
+}
@@ -0,0 +1,94 @@
+import backend.engine.DefaultEvaluation;
+import backend.engine.Engine;
+import backend.engine.ParallelEngine;
+import backend.engine.SearchResult;
+import backend.engine.TranspositionTable;
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineTest {
+    Game game;
+    Engine engine;
+
+    @BeforeEach
+    void setUp() {
+        try {
+            game = new Game(false, 0);
+        } catch (IllegalMoveException e) {
+            fail("Expected no exception, got: " + e.getMessage());
+        }
+        engine = new Engine();
+    }
+
+    @Test
+    void closesMill() {
+        // white has (0,0) and (3,0), black has (0,3) and (0,6)
+        int[] fields = {0, 9, 1, 21};
+        for (int field : fields) {
+            game.makeMove(Move.place(field));
+        }
+        String before = game.toString();
+
+        SearchResult result = engine.search(game, 10_000, 2);
+
+        assertEquals(2, Move.getTo(result.getMove()));
+        assertTrue(Move.isRemoval(result.getMove()));
+        assertEquals(2, result.getDepth());
+        assertTrue(result.getNodes() > 0);
+        // the search runs on a copy
+        assertEquals(before, game.toString());
+    }
+
+    @Test
+    void returnsLegalMove() {
+        int[] moves = new int[Game.MAX_MOVES];
+
+        // let the engine play against itself for a while
+        for (int ply = 0; ply < 40; ply++) {
+            int count = game.generateMoves(moves);
+            if (count == 0) break;
+
+            int move = engine.search(game, 10_000, 2).getMove();
+            boolean legal = false;
+            for (int i = 0; i < count; i++) {
+                legal |= moves[i] == move;
+            }
+            assertTrue(legal, Move.toString(move));
+            game.makeMove(move);
+        }
+    }
+
+    @Test
+    void stopsInTime() {
+        SearchResult result = engine.search(game, 50, Engine.MAX_PLY);
+
+        assertNotEquals(Move.NONE, result.getMove());
+        assertTrue(result.getNanos() < 1_000_000_000L);
+        assertTrue(result.getDepth() < Engine.MAX_PLY - 1);
+    }
+
+    @Test
+    void parallelSearch() {
+        int[] fields = {0, 9, 1, 21};
+        for (int field : fields) {
+            game.makeMove(Move.place(field));
+        }
+
+        try (ParallelEngine parallelEngine = new ParallelEngine(new DefaultEvaluation(), new TranspositionTable(1), 3)) {
+            SearchResult result = parallelEngine.search(game, 10_000, 2);
+
+            assertEquals(3, parallelEngine.getThreads());
+            assertEquals(2, Move.getTo(result.getMove()));
+            assertEquals(2, result.getDepth());
+
+            // the engine may be used for more than one search
+            game.makeMove(result.getMove());
+            assertNotEquals(Move.NONE, parallelEngine.search(game, 10_000, 3).getMove());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import backend.engine.DefaultEvaluation;
+import backend.engine.Engine;
+import backend.engine.Evaluation;
+import backend.engine.EvaluationCache;
+import backend.engine.SearchResult;
+import backend.engine.TranspositionTable;
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.MoveResult;
+import backend.logic.Topology;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationCacheTest {
+    @Test
+    void storeAndProbe() {
+        EvaluationCache cache = new EvaluationCache(1);
+        long key = 0x123456789ABCDEFL;
+        assertEquals(EvaluationCache.MISS, cache.probe(key, 0));
+
+        cache.store(key, -250, 0);
+        assertEquals(-250, cache.probe(key, 0));
+        assertEquals(EvaluationCache.MISS, cache.probe(key, 1));
+
+        // a search result replaces the evaluation, but not the other way round
+        cache.store(key, 40, 2);
+        cache.store(key, -250, 0);
+        assertEquals(40, cache.probe(key, 2));
+        assertEquals(40, cache.probe(key, 0));
+
+        assertEquals(3, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        cache.clear();
+        assertEquals(EvaluationCache.MISS, cache.probe(key, 0));
+    }
+
+    @Test
+    void clockEviction() {
+        EvaluationCache cache = new EvaluationCache(1);
+        // keys which differ only in the upper bits share a set of eight entries
+        long[] keys = new long[10];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 7 | (long) (i + 1) << 48;
+        }
+        for (int i = 0; i < 8; i++) {
+            cache.store(keys[i], i, 0);
+        }
+
+        // all entries but the fourth are found again, so the fourth is replaced
+        for (int i = 0; i < 8; i++) {
+            if (i != 3) assertEquals(i, cache.probe(keys[i], 0));
+        }
+        cache.store(keys[8], 8, 0);
+        assertEquals(EvaluationCache.MISS, cache.probe(keys[3], 0));
+        assertEquals(8, cache.probe(keys[8], 0));
+
+        // the hand has cleared the reference bits of the first entries on its way, so it passes the entries
+        // found after the fourth and comes round to the first one
+        cache.store(keys[9], 9, 0);
+        assertEquals(EvaluationCache.MISS, cache.probe(keys[0], 0));
+        assertEquals(4, cache.probe(keys[4], 0));
+        assertEquals(9, cache.probe(keys[9], 0));
+    }
+
+    @Test
+    void concurrentAccess() throws InterruptedException {
+        EvaluationCache cache = new EvaluationCache(1);
+        List<Thread> threads = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        // every thread stores scores derived from the key, so any score found has to match its key
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(1 << 18);
+                    cache.store(key, (int) key, random.nextInt(3));
+                    int score = cache.probe(key ^ 1, 0);
+                    if (score != EvaluationCache.MISS && score != (int) (key ^ 1)) {
+                        synchronized (errors) {
+                            errors.add(key + ": " + score);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertTrue(errors.isEmpty(), errors.toString());
+    }
+
+    @Test
+    void sharedByEngines() throws IllegalMoveException {
+        EvaluationCache cache = new EvaluationCache(1);
+        Game game = new Game(false, 0);
+
+        SearchResult first = new Engine(new DefaultEvaluation(), new TranspositionTable(1), null, cache).search(game, 10_000, 3);
+        long misses = cache.getMisses();
+        assertTrue(misses > 0);
+
+        // another engine with an empty table finds the shallow results of the first one
+        SearchResult second = new Engine(new DefaultEvaluation(), new TranspositionTable(1), null, cache).search(game, 10_000, 3);
+        assertEquals(first.getScore(), second.getScore());
+        assertTrue(second.getNodes() < first.getNodes());
+        assertTrue(cache.getHitRate() > 0);
+        assertSame(EvaluationCache.getShared(), EvaluationCache.getShared());
+    }
+
+    @Test
+    void drawsAreNotShared() {
+        // the shuffle of GameTest.drawByRepetition, the start occurs a third time after 8 plies
+        int[][] shuffle = {{0, 0, 0, 3}, {6, 0, 6, 3}, {0, 3, 0, 0}, {6, 3, 6, 0}};
+        Game game = Game.inMovePhase(1 | 1 << 3 | 1 << 15 | 1 << 23, 1 << 2 | 1 << 5 | 1 << 17 | 1 << 21, GameInterface.COLOUR_WHITE);
+        for (int ply = 0; ply < 6; ply++) {
+            int[] move = shuffle[ply % 4];
+            assertEquals(MoveResult.OK, game.tryMoveStone(game.getCurrentPlayer(), move[0], move[1], move[2], move[3]));
+        }
+        Game repeated = game.copy();
+        repeated.makeMove(Move.move(Topology.indexOf(0, 3), Topology.indexOf(0, 0)));
+        long key = repeated.getPositionKey();
+
+        // black is lost unless it repeats the start, and white prefers to give it the chance, so the position
+        // is searched first and its score is the draw, which a game reaching it on another path does not have
+        Evaluation evaluation = (position, colour) -> {
+            int score = (position.getStones(GameInterface.COLOUR_WHITE) & 1) != 0 ? 510 : 500;
+            return colour == GameInterface.COLOUR_WHITE ? score : -score;
+        };
+        EvaluationCache cache = new EvaluationCache(1);
+        new Engine(evaluation, new TranspositionTable(1), null, cache).search(game, 10_000, 2);
+        assertEquals(EvaluationCache.MISS, cache.probe(key, 1));
+    }
+}
@@ -1,11 +1,19 @@
 import backend.logic.Game;
+import backend.logic.GameSnapshot;
+import backend.logic.Move;
+import backend.logic.MoveResult;
+import backend.logic.Topology;
 import interfaces.IllegalMoveException;
 import backend.logic.Stone;
 import interfaces.GameInterface;
+import interfaces.GamePhase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("CodeBlock2Expr")
@@ -323,4 +331,220 @@ public class GameTest {
             fail("Expected no exception, got: " + e.getMessage());
         }
     }
+
+    @Test
+    void moveResults() {
+        assertEquals(MoveResult.NOT_YOUR_TURN, game.tryPlaceStone(GameInterface.COLOUR_BLACK, 0, 0));
+        assertEquals(MoveResult.NO_FIELD, game.tryPlaceStone(GameInterface.COLOUR_WHITE, 3, 3));
+        assertEquals(MoveResult.OUT_OF_BOUNDS, game.tryPlaceStone(GameInterface.COLOUR_WHITE, 7, 0));
+        assertEquals(MoveResult.OK, game.tryPlaceStone(GameInterface.COLOUR_WHITE, 0, 0));
+        assertEquals(MoveResult.FIELD_OCCUPIED, game.tryPlaceStone(GameInterface.COLOUR_BLACK, 0, 0));
+        assertEquals(MoveResult.NOT_MOVE_PHASE, game.tryMoveStone(GameInterface.COLOUR_BLACK, 0, 0, 3, 0));
+        assertEquals(MoveResult.NO_MILL, game.tryRemoveStone(GameInterface.COLOUR_WHITE, 0, 0));
+
+        // a rejected move does not change the game
+        assertEquals(8, game.getStonesInInventory(GameInterface.COLOUR_WHITE));
+        assertEquals(9, game.getStonesInInventory(GameInterface.COLOUR_BLACK));
+        assertEquals(GameInterface.COLOUR_BLACK, game.getCurrentPlayer());
+    }
+
+    @Test
+    void generateMoves() {
+        int[] moves = new int[Game.MAX_MOVES];
+        assertEquals(24, game.generateMoves(moves));
+
+        try {
+            game.placeStone(0,0, new Stone(GameInterface.COLOUR_WHITE));
+            game.placeStone(1,1, new Stone(GameInterface.COLOUR_BLACK));
+            game.placeStone(3,0, new Stone(GameInterface.COLOUR_WHITE));
+            game.placeStone(0,6, new Stone(GameInterface.COLOUR_BLACK));
+        } catch (IllegalMoveException e) {
+            fail("Expected no exception, got: " + e.getMessage());
+        }
+
+        // 19 placements without a mill and one placement, which closes a mill and may remove either black stone
+        assertEquals(21, game.generateMoves(moves));
+
+        try {
+            game.placeStone(6,0, new Stone(GameInterface.COLOUR_WHITE));
+        } catch (IllegalMoveException e) {
+            fail("Expected no exception, got: " + e.getMessage());
+        }
+
+        assertEquals(2, game.generateMoves(moves));
+        assertEquals(Move.remove(Topology.indexOf(1, 1)), moves[0]);
+        assertEquals(Move.remove(Topology.indexOf(0, 6)), moves[1]);
+        assertEquals("xb6", Move.toString(moves[0]));
+    }
+
+    @Test
+    void makeAndUnmakeMove() {
+        int[] moves = new int[Game.MAX_MOVES];
+        String start = game.toString();
+
+        // play the first move of every position, until the game is over or 100 moves have been made
+        int plies = 0;
+        while (plies < 100 && game.generateMoves(moves) > 0) {
+            game.makeMove(moves[0]);
+            plies++;
+        }
+        assertNotEquals(start, game.toString());
+
+        for (int i = 0; i < plies; i++) {
+            game.unmakeMove();
+        }
+
+        assertEquals(start, game.toString());
+        assertEquals(9, game.getStonesInInventory(GameInterface.COLOUR_WHITE));
+        assertEquals(9, game.getStonesInInventory(GameInterface.COLOUR_BLACK));
+        assertEquals(GameInterface.COLOUR_WHITE, game.getCurrentPlayer());
+        assertFalse(game.isThereAMill());
+        assertThrows(IllegalStateException.class, () -> game.unmakeMove());
+    }
+
+    @Test
+    void positionKey() {
+        long start = game.getPositionKey();
+        Game other;
+        try {
+            other = new Game(false, 0);
+
+            game.placeStone(0,0, new Stone(GameInterface.COLOUR_WHITE));
+            game.placeStone(1,1, new Stone(GameInterface.COLOUR_BLACK));
+            game.placeStone(3,0, new Stone(GameInterface.COLOUR_WHITE));
+
+            // same position, other order of moves
+            other.placeStone(3,0, new Stone(GameInterface.COLOUR_WHITE));
+            other.placeStone(1,1, new Stone(GameInterface.COLOUR_BLACK));
+            other.placeStone(0,0, new Stone(GameInterface.COLOUR_WHITE));
+        } catch (IllegalMoveException e) {
+            fail("Expected no exception, got: " + e.getMessage());
+            return;
+        }
+
+        assertEquals(other.getPositionKey(), game.getPositionKey());
+        assertEquals(game.computePositionKey(), game.getPositionKey());
+        assertNotEquals(start, game.getPositionKey());
+
+        int[] moves = new int[Game.MAX_MOVES];
+        game.generateMoves(moves);
+        game.makeMove(moves[0]);
+        assertEquals(game.computePositionKey(), game.getPositionKey());
+        game.unmakeMove();
+        assertEquals(other.getPositionKey(), game.getPositionKey());
+    }
+
+    @Test
+    void millAndMobilityCounts() {
+        int[] moves = new int[Game.MAX_MOVES];
+        // white closes the top row, black places on (3,1) and (1,1)
+        int[] fields = {0, 4, 1, 3, 2};
+        for (int field : fields) {
+            game.makeMove(Move.place(field));
+        }
+
+        assertTrue(game.isThereAMill());
+        assertEquals(3, game.getStonesInMillsCount(GameInterface.COLOUR_WHITE));
+        assertEquals(0, game.getStonesOutsideMillsCount(GameInterface.COLOUR_WHITE));
+        assertEquals(2, game.getStonesOutsideMillsCount(GameInterface.COLOUR_BLACK));
+        // the middle stone of the top row is surrounded by (0,0), (6,0) and (3,1)
+        assertEquals(2, game.getMovableStoneCount(GameInterface.COLOUR_WHITE));
+        assertEquals(2, game.getMovableStoneCount(GameInterface.COLOUR_BLACK));
+
+        game.makeMove(Move.remove(4));
+        assertEquals(3, game.getMovableStoneCount(GameInterface.COLOUR_WHITE));
+        assertEquals(1, game.getStonesOutsideMillsCount(GameInterface.COLOUR_BLACK));
+
+        game.unmakeMove();
+        game.unmakeMove();
+        assertEquals(0, game.getStonesInMillsCount(GameInterface.COLOUR_WHITE));
+        assertEquals(2, game.getMovableStoneCount(GameInterface.COLOUR_WHITE));
+        // (6,0) would close the mill again, once for every black stone
+        assertEquals(21, game.generateMoves(moves));
+    }
+
+    @Test
+    void snapshots() {
+        GameSnapshot start = game.getSnapshot();
+        assertEquals(0, start.getVersion());
+        assertSame(start.getStatus(), game.getStatus());
+
+        assertEquals(MoveResult.OK, game.tryPlaceStone(GameInterface.COLOUR_WHITE, 0, 0));
+        GameSnapshot placed = game.getSnapshot();
+        assertEquals(1, placed.getVersion());
+        assertEquals(1, placed.getStones(GameInterface.COLOUR_WHITE));
+        assertEquals(8, placed.getStatus().whiteStonesInInventory);
+        assertEquals(GameInterface.COLOUR_BLACK, placed.getCurrentPlayer());
+        assertEquals(game.getPositionKey(), placed.getPositionKey());
+
+        // neither illegal moves nor moves made with makeMove are published
+        assertEquals(MoveResult.NOT_YOUR_TURN, game.tryPlaceStone(GameInterface.COLOUR_WHITE, 3, 0));
+        game.makeMove(Move.place(1));
+        assertSame(placed, game.getSnapshot());
+        game.unmakeMove();
+
+        // the start is not changed by later moves
+        assertEquals(9, start.getStatus().whiteStonesInInventory);
+        assertEquals(0, start.getStones(GameInterface.COLOUR_WHITE));
+    }
+
+    @Test
+    void drawByRepetition() {
+        // white moves between (0,0) and (0,3), black between (6,0) and (6,3), so the start occurs after 4 and 8 plies
+        int[][] shuffle = {{0, 0, 0, 3}, {6, 0, 6, 3}, {0, 3, 0, 0}, {6, 3, 6, 0}};
+        Game game = Game.inMovePhase(1 | 1 << 3 | 1 << 15 | 1 << 23, 1 << 2 | 1 << 5 | 1 << 17 | 1 << 21, GameInterface.COLOUR_WHITE);
+        Game copy = null;
+
+        for (int ply = 0; ply < 8; ply++) {
+            assertEquals(GamePhase.MOVE_PHASE, game.getPhase());
+            if (ply == 7) copy = game.copy();
+
+            int[] move = shuffle[ply % 4];
+            assertEquals(MoveResult.OK, game.tryMoveStone(game.getCurrentPlayer(), move[0], move[1], move[2], move[3]));
+        }
+
+        assertEquals(GamePhase.GAME_OVER, game.getPhase());
+        assertTrue(game.isDraw());
+        assertTrue(game.getStatus().isDraw);
+        assertNull(game.getWinner());
+        assertEquals(0, game.generateMoves(new int[Game.MAX_MOVES]));
+
+        // a copy knows the positions before, the draw can be taken back
+        copy.makeMove(Move.move(Topology.indexOf(6, 3), Topology.indexOf(6, 0)));
+        assertTrue(copy.isDraw());
+        copy.unmakeMove();
+        assertFalse(copy.isDraw());
+        assertEquals(GamePhase.MOVE_PHASE, copy.getPhase());
+        assertEquals(copy.computePositionKey(), copy.getPositionKey());
+    }
+
+    @Test
+    void drawWithoutMill() {
+        // both players jump, so there are enough positions not to repeat any
+        Game game = Game.inMovePhase(1 | 1 << 3 | 1 << 15, 1 << 2 | 1 << 5 | 1 << 17, GameInterface.COLOUR_WHITE);
+        Set<Long> positions = new HashSet<>();
+        positions.add(game.getPositionKey());
+        int[] moves = new int[Game.MAX_MOVES];
+
+        int plies = 0;
+        while (game.getPhase() != GamePhase.GAME_OVER) {
+            int count = game.generateMoves(moves);
+            int move = Move.NONE;
+            for (int i = 0; i < count && move == Move.NONE; i++) {
+                if (Move.getRemoved(moves[i]) != Move.NONE) continue;
+
+                game.makeMove(moves[i]);
+                if (!positions.contains(game.getPositionKey())) move = moves[i];
+                game.unmakeMove();
+            }
+            assertNotEquals(Move.NONE, move);
+
+            game.makeMove(move);
+            positions.add(game.getPositionKey());
+            plies++;
+        }
+
+        assertTrue(game.isDraw());
+        assertEquals(Game.MAX_PLIES_WITHOUT_MILL, plies);
+    }
 }
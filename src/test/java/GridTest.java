@@ -1,6 +1,7 @@
 import backend.logic.Field;
 import backend.logic.Grid;
 import backend.logic.Stone;
+import backend.logic.Topology;
 import interfaces.GameInterface;
 import interfaces.IllegalMoveException;
 import org.junit.jupiter.api.Assertions;
@@ -300,12 +301,34 @@ class GridTest {
     }
 
     @Test
-    void getTwoConsecutiveFields() {
+    void bitboards() {
         try {
-            grid.generateMills();
+            grid.placeStone(0, 0, new Stone(GameInterface.COLOUR_WHITE));
+            grid.placeStone(3, 0, new Stone(GameInterface.COLOUR_WHITE));
+            grid.placeStone(6, 0, new Stone(GameInterface.COLOUR_WHITE));
+            grid.placeStone(0, 3, new Stone(GameInterface.COLOUR_BLACK));
         } catch (IllegalMoveException e) {
             fail("Expected no exception, got: " + e.getMessage());
         }
+
+        assertEquals(0, Topology.indexOf(0, 0));
+        assertEquals(23, Topology.indexOf(6, 6));
+        assertEquals(-1, Topology.indexOf(3, 3));
+        assertEquals(-1, Topology.indexOf(7, 0));
+
+        assertEquals(0b111, grid.getStones(GameInterface.COLOUR_WHITE));
+        assertEquals(0b111, grid.getStonesInMills(GameInterface.COLOUR_WHITE));
+        assertEquals(0, grid.getStonesInMills(GameInterface.COLOUR_BLACK));
+        assertTrue(grid.isInMill(Topology.indexOf(3, 0)));
+        assertFalse(grid.isInMill(Topology.indexOf(0, 3)));
+
+        assertTrue(grid.hasMovableStones(GameInterface.COLOUR_WHITE));
+        assertTrue(grid.hasMovableStones(GameInterface.COLOUR_BLACK));
+    }
+
+    @Test
+    void getTwoConsecutiveFields() {
+        assertEquals(16, grid.getPossibleMills().size());
         System.out.println(grid.getPossibleMills().size());
         System.out.println(grid.getPossibleMills());
     }
@@ -0,0 +1,86 @@
+import backend.engine.EngineScheduler;
+import backend.engine.EngineScheduler.Priority;
+import backend.engine.HintProvider;
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintProviderTest {
+    @Test
+    void cachedByPosition() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            HintProvider hints = new HintProvider(scheduler, 50, 1024);
+            Game game = new Game(false, 0);
+
+            int move = hints.getHint(game).get();
+            assertTrue(game.isLegal(move));
+            assertEquals(1, hints.getSearched());
+
+            // the same position in another game is answered at once
+            CompletableFuture<Integer> again = hints.getHint(new Game(false, 0));
+            assertTrue(again.isDone());
+            assertEquals(move, again.get());
+            assertEquals(1, hints.getHits());
+            assertEquals(1, hints.getSearched());
+
+            game.makeMove(move);
+            assertTrue(game.isLegal(hints.getHint(game).get()));
+            assertEquals(2, hints.getSearched());
+        }
+    }
+
+    @Test
+    void sharedSearch() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            CountDownLatch release = new CountDownLatch(1);
+            scheduler.submit(Priority.INTERACTIVE, 1_000, 10_000, millis -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+
+            HintProvider hints = new HintProvider(scheduler, 20, 1024);
+            Game game = Game.inMovePhase(1 | 1 << 1 | 1 << 9 | 1 << 14, 1 << 4 | 1 << 10 | 1 << 19, GameInterface.COLOUR_WHITE);
+            CompletableFuture<Integer> first = hints.getHint(game);
+            CompletableFuture<Integer> second = hints.getHint(game);
+            assertSame(first, second);
+
+            release.countDown();
+            assertEquals(first.get(), second.get());
+            assertEquals(1, hints.getSearched());
+        }
+    }
+
+    @Test
+    void noMoves() throws Exception {
+        try (EngineScheduler scheduler = new EngineScheduler(1, 16)) {
+            HintProvider hints = new HintProvider(scheduler);
+            // black has two stones left, so the game is over
+            Game game = Game.inMovePhase(1 | 1 << 1 | 1 << 9, 1 << 4 | 1 << 19, GameInterface.COLOUR_BLACK);
+            assertEquals(Move.NONE, hints.getHint(game).get());
+        }
+    }
+
+    @Test
+    void rejected() throws IllegalMoveException {
+        EngineScheduler scheduler = new EngineScheduler(1, 16);
+        scheduler.close();
+        HintProvider hints = new HintProvider(scheduler);
+
+        Game game = new Game(false, 0);
+        assertThrows(ExecutionException.class, () -> hints.getHint(game).get());
+        // the failure is not shared with later requests
+        assertNotSame(hints.getHint(game), hints.getHint(game));
+    }
+}
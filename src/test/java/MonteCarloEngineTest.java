@@ -0,0 +1,81 @@
+import backend.engine.MonteCarloEngine;
+import backend.engine.MonteCarloPolicy;
+import backend.engine.SearchResult;
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloEngineTest {
+    @Test
+    void findsWinningMove() {
+        // white a7, d7 and b4 jumps to g7, closes a mill and leaves black d6, d2 and g1 with two stones
+        int white = 1 | 1 << 1 | 1 << 10;
+        int black = 1 << 4 | 1 << 19 | 1 << 23;
+        Game game = Game.inMovePhase(white, black, GameInterface.COLOUR_WHITE);
+        String before = game.toString();
+
+        try (MonteCarloEngine engine = new MonteCarloEngine(1, 1 << 16, 18)) {
+            SearchResult result = engine.search(game, 10_000, 3000);
+            assertEquals(2, Move.getTo(result.getMove()));
+            assertTrue(Move.isRemoval(result.getMove()));
+            assertTrue(result.getScore() > 0);
+            assertEquals(3000, result.getNodes());
+        }
+        // the search runs on a copy
+        assertEquals(before, game.toString());
+    }
+
+    @Test
+    void nodeBudget() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        try (MonteCarloEngine engine = new MonteCarloEngine(3, 1 << 16, 18)) {
+            for (int budget : new int[] {1, 500, 2000}) {
+                SearchResult result = engine.search(game, 10_000, budget);
+                assertTrue(game.isLegal(result.getMove()));
+                assertEquals(budget, result.getNodes());
+            }
+        }
+    }
+
+    @Test
+    void fullArena() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        // room for the root and its children only
+        try (MonteCarloEngine engine = new MonteCarloEngine(1, 25, 18)) {
+            SearchResult result = engine.search(game, 10_000, 1000);
+            assertTrue(game.isLegal(result.getMove()));
+            assertEquals(1, result.getDepth());
+        }
+    }
+
+    @Test
+    void noMoves() {
+        // black has lost with two stones left
+        int white = 1 | 1 << 1 | 1 << 10;
+        int black = 1 << 4 | 1 << 19;
+        Game game = Game.inMovePhase(white, black, GameInterface.COLOUR_BLACK);
+
+        try (MonteCarloEngine engine = new MonteCarloEngine()) {
+            assertEquals(Move.NONE, engine.search(game, 10_000, 100).getMove());
+        }
+    }
+
+    @Test
+    void rootMovesBeyondCapacity() {
+        // white jumps with a7, d7 and b4, every jump to g7 closes a mill and removes one of the seven black stones
+        int white = 1 | 1 << 1 | 1 << 10;
+        int black = 1 << 4 | 1 << 5 | 1 << 7 | 1 << 12 | 1 << 19 | 1 << 20 | 1 << 23;
+        Game game = Game.inMovePhase(white, black, GameInterface.COLOUR_WHITE);
+        assertTrue(game.generateMoves(new int[Game.MAX_MOVES]) > 32);
+
+        // a single playout gets an arena of 32 nodes, the moves of the root are added anyway
+        int move = new MonteCarloPolicy(1, 18).chooseMove(game, new SplittableRandom(18));
+        assertTrue(game.isLegal(move));
+    }
+}
@@ -0,0 +1,153 @@
+import backend.engine.BookMove;
+import backend.engine.BookPolicy;
+import backend.engine.OpeningBook;
+import backend.engine.OpeningBookBuilder;
+import backend.engine.RandomPolicy;
+import backend.engine.SelfPlay;
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Symmetry;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+    @Test
+    void countsMovesAndResults() throws IOException, IllegalMoveException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        builder.addGames(new StringReader("# three games\n1-0 d7 a7 g7\n0-1 d7 g7\n\n1/2-1/2 a1 d7\n"));
+        assertEquals(3, builder.getGames());
+        OpeningBook book = builder.build(1);
+
+        // d7 has been played twice, a1 once
+        Game game = new Game(false, 0);
+        List<BookMove> moves = book.lookup(game);
+        assertEquals(2, moves.size());
+        int games = 0;
+        for (BookMove move : moves) {
+            assertTrue(game.isLegal(move.getMove()));
+            games += move.getGames();
+            if (move.getGames() == 2) {
+                assertEquals(1, move.getWins());
+                assertEquals(1, move.getLosses());
+                assertEquals(0.5, move.getScore(), 1e-9);
+            }
+        }
+        assertEquals(3, games);
+
+        // after d7 black has answered a7 and g7
+        game.makeMove(Move.place(1));
+        moves = book.lookup(game);
+        assertEquals(2, moves.size());
+        for (BookMove move : moves) {
+            assertEquals(1, move.getGames());
+            assertTrue(Move.getTo(move.getMove()) == 0 || Move.getTo(move.getMove()) == 2);
+        }
+
+        assertEquals(1, builder.build(2).lookup(new Game(false, 0)).size());
+    }
+
+    @Test
+    void startingPlayer() throws IOException, IllegalMoveException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        builder.addGames(new StringReader("0-1 black d7 a7\n0-1 white a1\n"));
+        OpeningBook book = builder.build(1);
+
+        // the stones in the inventories differ, so the positions of the games started by black are their own
+        Game game = Game.startedBy(GameInterface.COLOUR_BLACK);
+        List<BookMove> moves = book.lookup(game);
+        assertEquals(1, moves.size());
+        assertEquals(1, moves.get(0).getWins());
+        game.makeMove(moves.get(0).getMove());
+        assertEquals(1, book.lookup(game).size());
+
+        assertEquals(1, book.lookup(new Game(false, 0)).size());
+        assertEquals(0, book.lookup(new Game(false, 0)).get(0).getWins());
+    }
+
+    @Test
+    void symmetricPositions() throws IOException, IllegalMoveException {
+        StringWriter archive = new StringWriter();
+        new SelfPlay(RandomPolicy::new, RandomPolicy::new, 40, 0, 20).play(300, 1, archive);
+        OpeningBookBuilder builder = new OpeningBookBuilder(6);
+        builder.addGames(new StringReader(archive.toString()));
+        OpeningBook book = builder.build(1);
+
+        // a position and all of its images have the same book moves, transformed
+        String[] line = archive.toString().lines().findFirst().orElseThrow().split(" ");
+        boolean startingPlayer = line[1].equals("white") ? GameInterface.COLOUR_WHITE : GameInterface.COLOUR_BLACK;
+        Game game = Game.startedBy(startingPlayer);
+        for (int ply = 2; ply <= 4; ply++) {
+            game.makeMove(Move.fromString(line[ply]));
+        }
+        List<BookMove> moves = book.lookup(game);
+        assertFalse(moves.isEmpty());
+
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            Game image = Game.startedBy(startingPlayer);
+            for (int ply = 2; ply <= 4; ply++) {
+                image.makeMove(Symmetry.transformMove(symmetry, Move.fromString(line[ply])));
+            }
+            List<BookMove> imageMoves = book.lookup(image);
+            assertEquals(moves.size(), imageMoves.size());
+            for (BookMove move : imageMoves) {
+                assertTrue(image.isLegal(move.getMove()));
+            }
+        }
+    }
+
+    @Test
+    void writeAndOpen() throws IOException, IllegalMoveException {
+        StringWriter archive = new StringWriter();
+        new SelfPlay(RandomPolicy::new, RandomPolicy::new, 40, 0, 21).play(200, 1, archive);
+        OpeningBookBuilder builder = new OpeningBookBuilder(4);
+        builder.addGames(new StringReader(archive.toString()));
+
+        Path path = Files.createTempFile("book", ".bin");
+        try {
+            builder.write(path, 1);
+            OpeningBook book = OpeningBook.open(path);
+            assertEquals(builder.build(1).size(), book.size());
+            assertEquals(4, book.getPlies());
+
+            // the book moves are played first, the other policy takes over after the book
+            Game game = new Game(false, 0);
+            BookPolicy policy = new BookPolicy(book, 1, new RandomPolicy());
+            SplittableRandom random = new SplittableRandom(22);
+            for (int ply = 0; ply < 8; ply++) {
+                if (ply < 4) assertFalse(book.lookup(game).isEmpty());
+                int move = policy.chooseMove(game, random);
+                assertTrue(game.isLegal(move));
+                game.makeMove(move);
+            }
+            assertTrue(book.lookup(game).isEmpty());
+        } finally {
+            Files.delete(path);
+        }
+
+        Path other = Files.createTempFile("book", ".bin");
+        try {
+            Files.write(other, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+            assertThrows(IOException.class, () -> OpeningBook.open(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+
+    @Test
+    void illegalGames() {
+        OpeningBookBuilder builder = new OpeningBookBuilder(4);
+        assertThrows(IllegalArgumentException.class, () -> builder.addGames(new StringReader("1-0 d7 d7")));
+        assertThrows(IllegalArgumentException.class, () -> builder.addGames(new StringReader("2-0 d7")));
+    }
+}
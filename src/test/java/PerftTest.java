@@ -0,0 +1,62 @@
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Perft;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The expected counts have been computed by an independent brute-force implementation of the rules.
+ */
+class PerftTest {
+    @Test
+    void startPosition() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        long key = game.getPositionKey();
+
+        long[] expected = {1, 24, 552, 12144, 255024, 5140800};
+        for (int depth = 0; depth < expected.length; depth++) {
+            assertEquals(expected[depth], Perft.count(game, depth));
+        }
+        assertEquals(key, game.getPositionKey());
+    }
+
+    @Test
+    void endgame() {
+        // white a7, d7, a4 and f4 against black d6, b4 and d2, which jumps
+        int white = 1 | 1 << 1 | 1 << 9 | 1 << 14;
+        int black = 1 << 4 | 1 << 10 | 1 << 19;
+        Game game = Game.inMovePhase(white, black, GameInterface.COLOUR_WHITE);
+
+        long[] expected = {7, 204, 1254, 57810};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], Perft.count(game, depth));
+        }
+    }
+
+    @Test
+    void parallel() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        assertEquals(255024, Perft.count(game, 4, 3));
+        assertEquals(24, Perft.count(game, 1, 3));
+        assertThrows(IllegalArgumentException.class, () -> Perft.count(game, 4, 0));
+    }
+
+    @Test
+    void notation() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        int[] moves = new int[Game.MAX_MOVES];
+        for (int i = 0; i < game.generateMoves(moves); i++) {
+            assertEquals(moves[i], Move.fromString(Move.toString(moves[i])));
+        }
+
+        int move = Move.withRemoval(Move.move(0, 1), 23);
+        assertEquals("a7-d7xg1", Move.toString(move));
+        assertEquals(move, Move.fromString("a7-d7xg1"));
+        assertEquals(Move.remove(23), Move.fromString("xg1"));
+        assertThrows(IllegalArgumentException.class, () -> Move.fromString("b7"));
+        assertThrows(IllegalArgumentException.class, () -> Move.fromString("x"));
+    }
+}
@@ -0,0 +1,82 @@
+import backend.logic.Game;
+import backend.logic.PositionIndex;
+import backend.logic.Symmetry;
+import backend.logic.Topology;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+    @Test
+    void ranks() {
+        for (int k = 0; k <= 4; k++) {
+            long count = PositionIndex.binomial(Topology.FIELD_COUNT, k);
+            for (long rank = 0; rank < count; rank += 1 + rank / 7) {
+                int mask = PositionIndex.unrank(k, rank);
+                assertEquals(k, Integer.bitCount(mask));
+                assertEquals(rank, PositionIndex.rank(mask));
+            }
+        }
+        assertEquals(0, PositionIndex.rank(0b111));
+        assertEquals(1, PositionIndex.rank(0b1011));
+    }
+
+    @Test
+    void denseIndex() {
+        PositionIndex positions = new PositionIndex(3, 2, false);
+        assertEquals(2 * PositionIndex.binomial(24, 3) * PositionIndex.binomial(21, 2), positions.size());
+
+        for (long index = 0; index < positions.size(); index += 37) {
+            int white = positions.getWhiteStones(index);
+            int black = positions.getBlackStones(index);
+            assertEquals(3, Integer.bitCount(white));
+            assertEquals(2, Integer.bitCount(black));
+            assertEquals(0, white & black);
+            assertEquals(index, positions.indexOf(white, black, positions.getColourToMove(index)));
+        }
+
+        assertEquals(-1, positions.indexOf(0b111, 0b111000, GameInterface.COLOUR_WHITE));
+        assertEquals(-1, positions.indexOf(0b111, 0b110, GameInterface.COLOUR_WHITE));
+    }
+
+    @Test
+    void symmetricIndex() {
+        PositionIndex positions = new PositionIndex(3, 3, true);
+        long positionCount = 2 * PositionIndex.binomial(24, 3) * PositionIndex.binomial(21, 3);
+        assertTrue(positions.size() * Symmetry.COUNT >= positionCount);
+        assertTrue(positions.size() * Symmetry.COUNT < positionCount * 11 / 10);
+
+        Random random = new Random(14);
+        for (int i = 0; i < 1000; i++) {
+            long index = random.nextLong(positions.size());
+            int white = positions.getWhiteStones(index);
+            int black = positions.getBlackStones(index);
+            boolean colour = positions.getColourToMove(index);
+            assertEquals(Symmetry.pack(white, black), Symmetry.canonical(white, black));
+
+            // every position of the symmetry class shares the index of its representative
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                assertEquals(index, positions.indexOf(Symmetry.transform(symmetry, white), Symmetry.transform(symmetry, black), colour));
+            }
+        }
+    }
+
+    @Test
+    void gameIndex() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        PositionIndex start = new PositionIndex(0, 0, 9, 9, false);
+        assertEquals(2, start.size());
+        assertEquals(0, start.indexOf(game));
+        assertEquals(-1, new PositionIndex(0, 0, false).indexOf(game));
+
+        Game endgame = Game.inMovePhase(0b111 << 8, 0b111 << 16, GameInterface.COLOUR_BLACK);
+        PositionIndex positions = new PositionIndex(3, 3, true);
+        long index = positions.indexOf(endgame);
+        assertTrue(index >= 0);
+        assertEquals(GameInterface.COLOUR_BLACK, positions.getColourToMove(index));
+    }
+}
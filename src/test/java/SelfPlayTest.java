@@ -0,0 +1,67 @@
+import backend.engine.GreedyPolicy;
+import backend.engine.RandomPolicy;
+import backend.engine.SelfPlay;
+import backend.engine.SelfPlayResult;
+import backend.logic.Game;
+import backend.logic.Move;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlayTest {
+    @Test
+    void totals() {
+        SelfPlayResult result = new SelfPlay(RandomPolicy::new, RandomPolicy::new, 100, 0, 17).play(500, 2, null);
+        assertEquals(500, result.getGames());
+        assertEquals(500, result.getWins(GameInterface.COLOUR_WHITE) + result.getWins(GameInterface.COLOUR_BLACK) + result.getDraws());
+        assertEquals(1, result.getWinRate(GameInterface.COLOUR_WHITE) + result.getWinRate(GameInterface.COLOUR_BLACK) + result.getDrawRate(), 1e-9);
+        assertEquals(result.getAverageLength(), result.getAveragePlacePlies() + result.getAverageMovePlies() + result.getAverageJumpPlies(), 1e-9);
+        assertTrue(result.getLongestGame() <= 100);
+        assertTrue(result.getAveragePlacePlies() <= 18);
+    }
+
+    @Test
+    void repeatable() {
+        SelfPlay selfPlay = new SelfPlay(GreedyPolicy::new, RandomPolicy::new, 200, 2, 42);
+        SelfPlayResult oneThread = selfPlay.play(300, 1, null);
+        SelfPlayResult threeThreads = selfPlay.play(300, 3, null);
+        assertEquals(oneThread.getWins(GameInterface.COLOUR_WHITE), threeThreads.getWins(GameInterface.COLOUR_WHITE));
+        assertEquals(oneThread.getAverageLength(), threeThreads.getAverageLength(), 1e-9);
+
+        // greedy play beats random moves
+        assertTrue(oneThread.getWinRate(GameInterface.COLOUR_WHITE) > 0.8);
+    }
+
+    @Test
+    void archive() throws IllegalMoveException {
+        StringWriter archive = new StringWriter();
+        new SelfPlay(SelfPlay.parsePolicy("engine:1"), SelfPlay.parsePolicy("random"), 60, 2, 5).play(20, 2, archive);
+
+        List<String> lines = archive.toString().lines().toList();
+        assertEquals(20, lines.size());
+        int blackStarts = 0;
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            assertTrue(List.of("1-0", "0-1", "1/2-1/2").contains(parts[0]));
+            assertTrue(List.of("white", "black").contains(parts[1]));
+            if (parts[1].equals("black")) blackStarts++;
+
+            // every game can be replayed
+            Game game = Game.startedBy(parts[1].equals("white") ? GameInterface.COLOUR_WHITE : GameInterface.COLOUR_BLACK);
+            for (int i = 2; i < parts.length; i++) {
+                int move = Move.fromString(parts[i]);
+                assertTrue(game.isLegal(move));
+                game.makeMove(move);
+            }
+        }
+
+        assertEquals(10, blackStarts);
+
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.parsePolicy("perfect"));
+    }
+}
@@ -0,0 +1,72 @@
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Symmetry;
+import backend.logic.Topology;
+import interfaces.GameInterface;
+import interfaces.IllegalMoveException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+    @Test
+    void permutations() {
+        Set<Integer> images = new HashSet<>();
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            int fields = 0;
+            for (int index = 0; index < Topology.FIELD_COUNT; index++) {
+                int image = Symmetry.transformField(symmetry, index);
+                fields |= 1 << image;
+                assertEquals(index, Symmetry.transformField(Symmetry.inverse(symmetry), image));
+
+                // adjacent fields stay adjacent
+                assertEquals(Symmetry.transform(symmetry, Topology.getAdjacentMask(index)), Topology.getAdjacentMask(image));
+            }
+            assertEquals(Topology.ALL_FIELDS, fields);
+
+            // mills stay mills
+            for (int mill = 0; mill < Topology.MILL_COUNT; mill++) {
+                int image = Symmetry.transform(symmetry, Topology.getMill(mill));
+                assertTrue(image == Topology.getMillOfField(Integer.numberOfTrailingZeros(image), 0)
+                        || image == Topology.getMillOfField(Integer.numberOfTrailingZeros(image), 1));
+            }
+
+            // no two symmetries move the top left corner and its neighbour to the same fields
+            images.add(Symmetry.transformField(symmetry, 0) * 32 + Symmetry.transformField(symmetry, 1));
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+        assertEquals(6, Symmetry.transformField(8, 0));
+    }
+
+    @Test
+    void canonical() {
+        int white = 1 << 0 | 1 << 1;
+        int black = 1 << 10;
+        long canonical = Symmetry.canonical(white, black);
+
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            assertEquals(canonical, Symmetry.canonical(Symmetry.transform(symmetry, white), Symmetry.transform(symmetry, black)));
+        }
+        assertEquals(Move.place(23), Symmetry.transformMove(2, Move.place(0)));
+        assertEquals(Move.withRemoval(Move.move(23, 22), 21), Symmetry.transformMove(2, Move.withRemoval(Move.move(0, 1), 2)));
+    }
+
+    @Test
+    void canonicalPositionKey() throws IllegalMoveException {
+        Game game = new Game(false, 0);
+        Game mirrored = new Game(false, 0);
+        int[] fields = {0, 10, 1};
+
+        for (int field : fields) {
+            game.makeMove(Move.place(field));
+            mirrored.makeMove(Move.place(Symmetry.transformField(13, field)));
+        }
+
+        assertNotEquals(game.getPositionKey(), mirrored.getPositionKey());
+        assertEquals(game.getCanonicalPositionKey(), mirrored.getCanonicalPositionKey());
+        assertEquals(3, game.getStones(GameInterface.COLOUR_WHITE));
+    }
+}
@@ -0,0 +1,143 @@
+import backend.engine.Engine;
+import backend.engine.DefaultEvaluation;
+import backend.engine.SearchResult;
+import backend.engine.Tablebase;
+import backend.engine.TablebaseGenerator;
+import backend.engine.TranspositionTable;
+import backend.logic.Game;
+import backend.logic.Move;
+import backend.logic.Topology;
+import interfaces.GameInterface;
+import interfaces.GamePhase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+    static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() {
+        tablebase = TablebaseGenerator.generate(Tablebase.MIN_STONES);
+    }
+
+    /**
+     * @return a random position with three stones per side
+     */
+    static Game randomPosition(SplittableRandom random) {
+        int white = 0;
+        int black = 0;
+        while (Integer.bitCount(white) < 3) white |= 1 << random.nextInt(Topology.FIELD_COUNT);
+        while (Integer.bitCount(black) < 3) black |= 1 << random.nextInt(Topology.FIELD_COUNT) & ~white;
+        return Game.inMovePhase(white, black, random.nextBoolean());
+    }
+
+    @Test
+    void valuesFollowFromTheMoves() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] moves = new int[Game.MAX_MOVES];
+        int wins = 0;
+        int draws = 0;
+
+        for (int i = 0; i < 2000; i++) {
+            Game game = randomPosition(random);
+            int value = tablebase.probe(game);
+            assertNotEquals(Tablebase.UNKNOWN, value);
+
+            // the best value of all moves, from the view of the player to move
+            int expected = 0;
+            int best = Integer.MIN_VALUE;
+            int count = game.generateMoves(moves);
+            for (int m = 0; m < count; m++) {
+                game.makeMove(moves[m]);
+                int child = game.getPhase() == GamePhase.GAME_OVER ? -1 : tablebase.probe(game);
+                game.unmakeMove();
+
+                assertNotEquals(Tablebase.UNKNOWN, child);
+                int distance = Tablebase.getDistance(child) + 1;
+                int candidate = Tablebase.isLoss(child) ? distance + 1 : Tablebase.isWin(child) ? -(distance + 1) : 0;
+                if (rank(candidate) > best) {
+                    best = rank(candidate);
+                    expected = candidate;
+                }
+            }
+
+            assertEquals(expected, value);
+            if (Tablebase.isWin(value)) wins++;
+            if (value == 0) draws++;
+        }
+        assertTrue(wins > 0);
+        assertTrue(draws > 0);
+    }
+
+    /**
+     * Orders values from the longest loss over draws to the shortest win.
+     */
+    static int rank(int value) {
+        if (Tablebase.isWin(value)) return 1000 - value;
+        if (Tablebase.isLoss(value)) return -1000 - value;
+        return 0;
+    }
+
+    @Test
+    void unknownPositions() {
+        Game game = Game.inMovePhase(0b1111, 0b111 << 8, GameInterface.COLOUR_WHITE);
+        assertEquals(Tablebase.UNKNOWN, tablebase.probe(game));
+    }
+
+    @Test
+    void writeAndOpen() throws IOException {
+        Path path = Files.createTempFile("tablebase", ".bin");
+        try {
+            tablebase.write(path);
+            Tablebase opened = Tablebase.open(path);
+            assertEquals(tablebase.getMaxStones(), opened.getMaxStones());
+
+            SplittableRandom random = new SplittableRandom(3);
+            for (int i = 0; i < 1000; i++) {
+                Game game = randomPosition(random);
+                assertEquals(tablebase.probe(game), opened.probe(game));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void engineUsesTablebase() {
+        SplittableRandom random = new SplittableRandom(11);
+        Engine engine = new Engine(new DefaultEvaluation(), new TranspositionTable(1), tablebase);
+
+        Game game = randomPosition(random);
+        while (!Tablebase.isWin(tablebase.probe(game))) game = randomPosition(random);
+
+        SearchResult result = engine.search(game, 10_000, 2);
+        assertTrue(result.isDecisive());
+        assertEquals(Tablebase.getDistance(tablebase.probe(game)), Engine.WIN - result.getScore());
+    }
+
+    @Test
+    void capturesIntoDraws() {
+        // white d5, e5, c4 and c3 can only move to c5, closing a mill, and every stone of black d6, b4, e4 and d3
+        // captured there leads to a draw, so the position is a draw as well
+        Game game = Game.inMovePhase(1 << 7 | 1 << 8 | 1 << 11 | 1 << 15, 1 << 4 | 1 << 10 | 1 << 12 | 1 << 16, GameInterface.COLOUR_WHITE);
+        Tablebase fourStones = TablebaseGenerator.generate(4);
+
+        int[] moves = new int[Game.MAX_MOVES];
+        int count = game.generateMoves(moves);
+        assertEquals(8, count);
+        for (int i = 0; i < count; i++) {
+            assertNotEquals(Move.NONE, Move.getRemoved(moves[i]));
+            game.makeMove(moves[i]);
+            assertEquals(0, fourStones.probe(game));
+            game.unmakeMove();
+        }
+        assertEquals(0, fourStones.probe(game));
+    }
+}
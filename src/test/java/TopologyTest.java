@@ -0,0 +1,52 @@
+import backend.logic.Topology;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyTest {
+    @Test
+    void indices() {
+        for (int index = 0; index < Topology.FIELD_COUNT; index++) {
+            assertEquals(index, Topology.indexOf(Topology.getPosX(index), Topology.getPosY(index)));
+        }
+        assertEquals(-1, Topology.indexOf(3, 3));
+        assertEquals(-1, Topology.indexOf(0, 1));
+        assertEquals(-1, Topology.indexOf(-1, 0));
+    }
+
+    @Test
+    void adjacency() {
+        int edges = 0;
+        for (int index = 0; index < Topology.FIELD_COUNT; index++) {
+            for (int n = 0; n < Topology.getAdjacentCount(index); n++) {
+                int adjacent = Topology.getAdjacentField(index, n);
+                assertTrue((Topology.getAdjacentMask(adjacent) & (1 << index)) != 0);
+                edges++;
+            }
+        }
+        assertEquals(64, edges);
+
+        // the center is not crossed
+        assertEquals(0, Topology.getAdjacentMask(Topology.indexOf(2, 3)) & (1 << Topology.indexOf(4, 3)));
+    }
+
+    @Test
+    void mills() {
+        int covered = 0;
+        for (int mill = 0; mill < Topology.MILL_COUNT; mill++) {
+            assertEquals(3, Integer.bitCount(Topology.getMill(mill)));
+            covered |= Topology.getMill(mill);
+        }
+        assertEquals(Topology.ALL_FIELDS, covered);
+
+        int index = Topology.indexOf(3, 0);
+        assertEquals(
+                (1 << Topology.indexOf(0, 0)) | (1 << index) | (1 << Topology.indexOf(6, 0)),
+                Topology.getMillOfField(index, 0)
+        );
+        assertEquals(
+                (1 << index) | (1 << Topology.indexOf(3, 1)) | (1 << Topology.indexOf(3, 2)),
+                Topology.getMillOfField(index, 1)
+        );
+    }
+}
@@ -0,0 +1,92 @@
+import backend.engine.TranspositionTable;
+import backend.logic.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+
+        assertEquals(0, table.probe(key));
+
+        table.store(key, Move.place(5), -1234, 7, TranspositionTable.LOWER_BOUND);
+        long data = table.probe(key);
+        assertEquals(Move.place(5), TranspositionTable.getMove(data));
+        assertEquals(-1234, TranspositionTable.getScore(data));
+        assertEquals(7, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(data));
+
+        // the same position is always replaced
+        table.store(key, Move.NONE, 10, 2, TranspositionTable.EXACT);
+        assertEquals(2, TranspositionTable.getDepth(table.probe(key)));
+
+        table.clear();
+        assertEquals(0, table.probe(key));
+    }
+
+    @Test
+    void depthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        // keys which differ only in the upper bits share a bucket of four entries
+        long[] keys = new long[6];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 42 | (long) (i + 1) << 48;
+        }
+        for (int i = 0; i < 4; i++) {
+            table.store(keys[i], Move.NONE, 0, 10 + i, TranspositionTable.EXACT);
+        }
+
+        table.store(keys[4], Move.NONE, 0, 1, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(keys[0]));
+        assertNotEquals(0, table.probe(keys[3]));
+
+        // a few searches later, shallow new entries replace the old ones, even deep ones
+        for (int i = 0; i < 3; i++) {
+            table.newSearch();
+        }
+        table.store(keys[0], Move.NONE, 0, 1, TranspositionTable.EXACT);
+        table.store(keys[5], Move.NONE, 0, 1, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(keys[4]));
+        assertEquals(0, table.probe(keys[1]));
+        assertNotEquals(0, table.probe(keys[0]));
+        assertNotEquals(0, table.probe(keys[5]));
+        assertNotEquals(0, table.probe(keys[3]));
+    }
+
+    @Test
+    void concurrentStores() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        List<Thread> threads = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        // every thread stores data derived from the key, so any entry found has to match its key
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(1 << 16);
+                    table.store(key, (int) (key & 0x7FFF), (int) key, 5, TranspositionTable.EXACT);
+                    long data = table.probe(key ^ 1);
+                    if (data != 0 && TranspositionTable.getScore(data) != (int) (key ^ 1)) {
+                        synchronized (errors) {
+                            errors.add("Entry of " + (key ^ 1) + " does not match its key");
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(List.of(), errors);
+    }
+}